@@ -0,0 +1,43 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingParamState;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+// Первая страница истории бронирований активного арендатора и владельца
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookingServiceBenchmark {
+    @Benchmark
+    public Collection<BookingDto> findAll(ShareItState state) {
+        return state.bookingService.findAll(state.bookerId, BookingParamState.ALL, 0, 20, null);
+    }
+
+    @Benchmark
+    public Collection<BookingDto> findAllPast(ShareItState state) {
+        return state.bookingService.findAll(state.bookerId, BookingParamState.PAST, 0, 20, null);
+    }
+
+    @Benchmark
+    public Collection<BookingDto> findAllByOwner(ShareItState state) {
+        return state.bookingService.findAllByOwner(state.ownerId, BookingParamState.ALL, 0, 20, null);
+    }
+
+    @Benchmark
+    public Collection<BookingDto> findAllByOwnerWaiting(ShareItState state) {
+        return state.bookingService.findAllByOwner(
+                state.ownerId, BookingParamState.WAITING, 0, 20, null);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemWithBookingDto;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+// Вещи владельца с последним и следующим бронированием, поиск по тексту
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ItemServiceBenchmark {
+    @Benchmark
+    public Collection<ItemWithBookingDto> findAllByUser(ShareItState state) {
+        return state.itemService.findAllByUser(state.ownerId, 0, 20, null);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> search(ShareItState state) {
+        return state.itemService.search(state.bookerId, ShareItState.SEARCH_TEXT, 0, 20);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Маппинг одной страницы без базы данных: сущности собраны в памяти
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    @Param({"20", "100"})
+    public int pageSize;
+
+    @Param({"0", "5"})
+    public int commentsPerItem;
+
+    private List<Booking> bookings;
+    private List<Item> items;
+    private List<Comment> comments;
+    private Map<Long, Collection<CommentDto>> commentsByItemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookings = new ArrayList<>();
+        items = new ArrayList<>();
+        comments = new ArrayList<>();
+        commentsByItemId = new HashMap<>();
+        User owner = makeUser(1L);
+        for (long id = 1; id <= pageSize; id++) {
+            Item item = new Item();
+            item.setId(id);
+            item.setName("Вещь " + id);
+            item.setDescription("Описание вещи " + id);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            List<Comment> itemComments = new ArrayList<>();
+            for (long c = 0; c < commentsPerItem; c++) {
+                Comment comment = new Comment();
+                comment.setId(id * 100 + c);
+                comment.setText("Комментарий " + c);
+                comment.setItem(item);
+                comment.setAuthor(makeUser(100 + c));
+                itemComments.add(comment);
+            }
+            item.setComments(itemComments);
+            comments.addAll(itemComments);
+            commentsByItemId.put(id, CommentMapper.commentDto(itemComments));
+            items.add(item);
+
+            Booking booking = new Booking();
+            booking.setId(id);
+            booking.setStart(LocalDateTime.now());
+            booking.setEnd(LocalDateTime.now().plusDays(1));
+            booking.setItem(item);
+            booking.setBooker(makeUser(2L));
+            booking.setStatus(BookingStatus.APPROVED);
+            bookings.add(booking);
+        }
+    }
+
+    @Benchmark
+    public Collection<BookingDto> bookingToBookingDto() {
+        return BookingMapper.toBookingDto(bookings);
+    }
+
+    @Benchmark
+    public Collection<BookingDto> bookingToBookingDtoWithComments() {
+        return BookingMapper.toBookingDto(bookings, commentsByItemId);
+    }
+
+    @Benchmark
+    public Collection<ItemDto> itemToItemDto() {
+        return ItemMapper.toItemDto(items);
+    }
+
+    @Benchmark
+    public Collection<CommentDto> commentToCommentDto() {
+        return CommentMapper.commentDto(comments);
+    }
+
+    private static User makeUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Пользователь " + id);
+        user.setEmail("user" + id + "@mail.com");
+        return user;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.dataset.Dataset;
+import ru.practicum.shareit.dataset.DatasetGenerator;
+import ru.practicum.shareit.dataset.DatasetProperties;
+import ru.practicum.shareit.item.ItemService;
+
+// Контекст приложения без web поверх in-memory H2, заполненной DatasetGenerator.
+// На одного пользователя приходится 10 вещей и 100 бронирований
+@State(Scope.Benchmark)
+public class ShareItState {
+    @Param({"1000", "100000", "1000000"})
+    public int bookings;
+
+    public static final String SEARCH_TEXT = "дрель";
+
+    public BookingService bookingService;
+    public ItemService itemService;
+    public Long ownerId;
+    public Long bookerId;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN"
+                )
+                .run();
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(Math.max(100, bookings / 100));
+        properties.setItems(Math.max(10, bookings / 10));
+        properties.setRequests(Math.max(1, bookings / 200));
+        properties.setComments(Math.max(1, bookings / 50));
+        properties.setBookings(bookings);
+        Dataset dataset = context.getBean(DatasetGenerator.class).generate(properties);
+        ownerId = dataset.getTopOwnerId();
+        bookerId = dataset.getTopBookerId();
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
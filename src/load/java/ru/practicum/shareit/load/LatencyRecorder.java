@@ -0,0 +1,76 @@
+package ru.practicum.shareit.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Задержки всех запросов по endpoint-ам, процентили считаются после прогона
+public class LatencyRecorder {
+    private final Map<String, Samples> samples = new TreeMap<>();
+
+    public synchronized void record(String endpoint, long nanos, boolean success) {
+        samples.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, success);
+    }
+
+    public synchronized List<Result> results(double seconds) {
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+            Samples endpointSamples = entry.getValue();
+            long[] sorted = Arrays.copyOf(endpointSamples.nanos, endpointSamples.size);
+            Arrays.sort(sorted);
+            results.add(new Result(
+                    entry.getKey(),
+                    sorted.length,
+                    endpointSamples.errors,
+                    sorted.length / seconds,
+                    percentile(sorted, 0.50) / 1_000_000.0,
+                    percentile(sorted, 0.99) / 1_000_000.0
+            ));
+        }
+        return results;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    public static final class Result {
+        public final String endpoint;
+        public final int requests;
+        public final int errors;
+        public final double throughput;
+        public final double p50Millis;
+        public final double p99Millis;
+
+        Result(String endpoint, int requests, int errors, double throughput, double p50Millis, double p99Millis) {
+            this.endpoint = endpoint;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+        }
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private int errors;
+
+        void add(long value, boolean success) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (!success) {
+                errors++;
+            }
+        }
+    }
+}
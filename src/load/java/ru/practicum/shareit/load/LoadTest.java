@@ -0,0 +1,272 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.dataset.DatasetGenerator;
+import ru.practicum.shareit.dataset.DatasetProperties;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Нагрузочный тест REST API: смесь чтения и записи в несколько потоков, по каждому endpoint-у
+// печатаются число запросов, ошибки, пропускная способность, p50 и p99.
+// Без --base-url поднимает приложение в этом же процессе и заполняет базу через DatasetGenerator,
+// аргументы --spring.* и --shareit.* передаются приложению,
+// например --spring.datasource.url=jdbc:postgresql://localhost:5432/shareit для локального PostgreSQL.
+// С --base-url данные создаются через API внешнего сервера
+public class LoadTest {
+    private static final String[] NAMES = {"Дрель", "Отвертка", "Пила", "Молоток", "Лестница",
+            "Палатка", "Велосипед", "Самокат", "Проектор", "Фотоаппарат"};
+    private static final String[] SEARCH_TEXTS = {"дрель", "пила", "палатк", "велосипед", "для дома", "ток"};
+
+    private final Map<String, String> options;
+    private final List<Operation> operations = new ArrayList<>();
+    private final List<Long> users = new ArrayList<>();
+    // id вещей и их владельцы, владельцы повторяются пропорционально числу вещей
+    private final List<Long> items = new ArrayList<>();
+    private final Map<Long, Long> itemOwners = new HashMap<>();
+    private final List<Long> owners = new ArrayList<>();
+    // бронирования в статусе WAITING и владельцы их вещей
+    private final Queue<long[]> waitingBookings = new ConcurrentLinkedQueue<>();
+    private ShareItClient client;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        operations.add(new Operation(10, this::createBooking));
+        operations.add(new Operation(5, this::approveBooking));
+        operations.add(new Operation(20, this::findOwnerBookings));
+        operations.add(new Operation(25, this::findOwnerItems));
+        operations.add(new Operation(25, this::searchItems));
+        operations.add(new Operation(15, this::findOtherRequests));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--server.") || arg.startsWith("--shareit.")) {
+                springArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Неизвестный аргумент " + arg);
+            }
+        }
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(ShareItApp.class)
+                    .properties("server.port=0", "logging.level.root=WARN")
+                    .run(springArgs.toArray(new String[0]));
+            baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        }
+        boolean passed;
+        try {
+            passed = new LoadTest(options).run(baseUrl, context);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(String baseUrl, ConfigurableApplicationContext context) throws InterruptedException {
+        client = new ShareItClient(baseUrl);
+        if (context == null) {
+            seed(option("users", 100), option("items", 1000), option("bookings", 2000));
+        } else {
+            generate(context);
+        }
+
+        int threads = option("threads", 8);
+        execute(threads, option("warmup", 5));
+        LatencyRecorder recorder = new LatencyRecorder();
+        client.setRecorder(recorder);
+        int duration = option("duration", 30);
+        execute(threads, duration);
+        client.setRecorder(null);
+
+        List<LatencyRecorder.Result> results = recorder.results(duration);
+        System.out.printf("%n%d threads, %d s%n", threads, duration);
+        System.out.printf("%-22s %9s %7s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+        for (LatencyRecorder.Result result : results) {
+            System.out.printf(Locale.ROOT, "%-22s %9d %7d %9.1f %9.2f %9.2f%n", result.endpoint, result.requests,
+                    result.errors, result.throughput, result.p50Millis, result.p99Millis);
+        }
+        if (!options.containsKey("max-p99-ms")) {
+            return true;
+        }
+        double maxP99 = Double.parseDouble(options.get("max-p99-ms"));
+        boolean passed = true;
+        for (LatencyRecorder.Result result : results) {
+            if (result.p99Millis > maxP99) {
+                System.out.printf(Locale.ROOT, "%s: p99 %.2f ms больше %.2f ms%n",
+                        result.endpoint, result.p99Millis, maxP99);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    // Размеры берутся из свойств shareit.dataset.*, вещи и пользователи затем читаются из базы
+    private void generate(ConfigurableApplicationContext context) {
+        context.getBean(DatasetGenerator.class).generate(context.getBean(DatasetProperties.class));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        users.addAll(jdbcTemplate.queryForList("SELECT id FROM users", Long.class));
+        jdbcTemplate.query("SELECT id, owner_id FROM items WHERE is_available", (RowCallbackHandler) row -> {
+            items.add(row.getLong("id"));
+            itemOwners.put(row.getLong("id"), row.getLong("owner_id"));
+            owners.add(row.getLong("owner_id"));
+        });
+        jdbcTemplate.query("SELECT b.id, i.owner_id FROM bookings b JOIN items i ON i.id = b.item_id " +
+                        "WHERE b.status = 'WAITING' AND b.start_date > CURRENT_TIMESTAMP",
+                (RowCallbackHandler) row -> waitingBookings.add(new long[]{row.getLong(1), row.getLong(2)}));
+    }
+
+    // Данные создаются через API, первая же ошибка прерывает прогон. Вещи распределены неравномерно: пятая часть пользователей владеет половиной
+    private void seed(int userCount, int itemCount, int bookingCount) {
+        for (int i = 0; i < userCount; i++) {
+            JsonNode user = client.create("POST /users", "POST", "/users", null,
+                    Map.of("name", "Пользователь " + i, "email", "load" + System.nanoTime() + "@mail.com"));
+            users.add(user.get("id").asLong());
+        }
+        List<Long> requests = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            JsonNode request = client.create("POST /requests", "POST", "/requests", users.get(i),
+                    Map.of("description", "Нужна " + NAMES[i % NAMES.length].toLowerCase(Locale.ROOT)));
+            requests.add(request.get("id").asLong());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int heavyOwners = Math.max(userCount / 5, 1);
+        for (int i = 0; i < itemCount; i++) {
+            long owner = i % 2 == 0 ? users.get(random.nextInt(heavyOwners)) : randomUser();
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", NAMES[i % NAMES.length] + " " + i);
+            body.put("description", NAMES[random.nextInt(NAMES.length)] + " для дома и дачи");
+            body.put("available", true);
+            if (i % 10 == 0) {
+                body.put("requestId", requests.get(random.nextInt(requests.size())));
+            }
+            JsonNode item = client.create("POST /items", "POST", "/items", owner, body);
+            long id = item.get("id").asLong();
+            items.add(id);
+            itemOwners.put(id, owner);
+            owners.add(owner);
+        }
+        for (int i = 0; i < bookingCount; i++) {
+            createBooking(random);
+        }
+    }
+
+    private void execute(int threads, int seconds) throws InterruptedException {
+        if (seconds <= 0) {
+            return;
+        }
+        int totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int choice = random.nextInt(totalWeight);
+                    for (Operation operation : operations) {
+                        choice -= operation.weight;
+                        if (choice < 0) {
+                            operation.action.accept(random);
+                            break;
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private void createBooking(ThreadLocalRandom random) {
+        long item = items.get(random.nextInt(items.size()));
+        long booker = randomUser();
+        if (booker == itemOwners.get(item)) {
+            return;
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + random.nextInt(365)).plusHours(random.nextInt(24));
+        JsonNode booking = client.send("POST /bookings", "POST", "/bookings", booker, Map.of(
+                "itemId", item,
+                "start", start.toString(),
+                "end", start.plusDays(1 + random.nextInt(5)).toString()));
+        if (booking != null) {
+            waitingBookings.add(new long[]{booking.get("id").asLong(), itemOwners.get(item)});
+        }
+    }
+
+    private void approveBooking(ThreadLocalRandom random) {
+        long[] booking = waitingBookings.poll();
+        if (booking == null) {
+            return;
+        }
+        client.send("PATCH /bookings/{id}", "PATCH", "/bookings/" + booking[0] + "?approved=" + random.nextBoolean(),
+                booking[1], null);
+    }
+
+    private void findOwnerBookings(ThreadLocalRandom random) {
+        String[] states = {"ALL", "FUTURE", "WAITING"};
+        client.send("GET /bookings/owner", "GET", "/bookings/owner?state=" + states[random.nextInt(states.length)],
+                randomOwner(), null);
+    }
+
+    private void findOwnerItems(ThreadLocalRandom random) {
+        client.send("GET /items", "GET", "/items", randomOwner(), null);
+    }
+
+    private void searchItems(ThreadLocalRandom random) {
+        String text = SEARCH_TEXTS[random.nextInt(SEARCH_TEXTS.length)];
+        client.send("GET /items/search", "GET", "/items/search?text=" + URLEncoder.encode(text, StandardCharsets.UTF_8),
+                randomUser(), null);
+    }
+
+    private void findOtherRequests(ThreadLocalRandom random) {
+        client.send("GET /requests/all", "GET", "/requests/all", randomUser(), null);
+    }
+
+    private long randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    private long randomOwner() {
+        return owners.get(ThreadLocalRandom.current().nextInt(owners.size()));
+    }
+
+    private int option(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static final class Operation {
+        private final int weight;
+        private final Consumer<ThreadLocalRandom> action;
+
+        Operation(int weight, Consumer<ThreadLocalRandom> action) {
+            this.weight = weight;
+            this.action = action;
+        }
+    }
+}
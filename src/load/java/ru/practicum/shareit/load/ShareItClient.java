@@ -0,0 +1,94 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// HTTP клиент к REST API, каждый вызов попадает в LatencyRecorder под именем endpoint-а
+public class ShareItClient {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+    private volatile LatencyRecorder recorder;
+
+    public ShareItClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    // null отключает запись, например на время прогрева
+    public void setRecorder(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    // Тело успешного ответа или null, если статус не 2xx
+    public JsonNode send(String endpoint, String method, String path, Long userId, Object body) {
+        try {
+            HttpResponse<String> response = exchange(endpoint, method, path, userId, body);
+            return response.statusCode() / 100 == 2 && !response.body().isEmpty()
+                    ? mapper.readTree(response.body()) : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Созданный объект. Без него продолжать нельзя, поэтому любая ошибка прерывает прогон
+    public JsonNode create(String endpoint, String method, String path, Long userId, Object body) {
+        try {
+            HttpResponse<String> response = exchange(endpoint, method, path, userId, body);
+            if (response.statusCode() / 100 != 2 || response.body().isEmpty()) {
+                throw new IllegalStateException(endpoint + " вернул статус " + response.statusCode()
+                        + ": " + response.body());
+            }
+            return mapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException(endpoint + " не выполнен: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(endpoint + " прерван", e);
+        }
+    }
+
+    private HttpResponse<String> exchange(String endpoint, String method, String path, Long userId, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (userId != null) {
+            request.header(USER_ID_HEADER, userId.toString());
+        }
+        request.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            record(endpoint, 0, false);
+            throw e;
+        }
+        record(endpoint, System.nanoTime() - start, response.statusCode() / 100 == 2);
+        return response;
+    }
+
+    private void record(String endpoint, long nanos, boolean success) {
+        LatencyRecorder current = recorder;
+        if (current != null) {
+            current.record(endpoint, nanos, success);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit;
+
+// Общее для постраничного вывода с курсором
+public final class Pagination {
+    // Полная страница отдаёт в этом заголовке курсор на следующую
+    public static final String HTTP_NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Pagination() {
+    }
+}
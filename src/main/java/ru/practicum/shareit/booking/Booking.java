@@ -11,6 +11,21 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings", schema = "public")
+// Всё, что нужно BookingMapper.toBookingDto, одним запросом
+@NamedEntityGraph(
+        name = "Booking.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = {
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode(value = "request", subgraph = "request")
+                }),
+                @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requestor"))
+        }
+)
 @Getter @Setter @ToString
 public class Booking {
     @Id
@@ -28,6 +43,8 @@ public class Booking {
     private User booker;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    @Version
+    private Long version;
 
     @Override
     public boolean equals(Object o) {
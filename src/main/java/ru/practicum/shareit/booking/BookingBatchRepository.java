@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking;
+
+import java.util.List;
+
+public interface BookingBatchRepository {
+    // Insert new bookings with one JDBC batch in one transaction and set their generated ids
+    void insertAll(List<Booking> bookings);
+}
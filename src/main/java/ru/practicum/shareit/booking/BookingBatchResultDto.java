@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Результат одного бронирования из пакета: HTTP статус, созданное бронирование или причина отказа
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    private Integer status;
+    private BookingDto booking;
+    private String error;
+}
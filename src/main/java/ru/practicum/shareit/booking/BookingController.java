@@ -3,10 +3,14 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.Pagination;
 import ru.practicum.shareit.user.UserController;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -17,25 +21,33 @@ public class BookingController {
     private final BookingService bookingService;
 
     @GetMapping
-    public Collection<BookingDto> findAll(
+    public ResponseEntity<Collection<BookingDto>> findAll(
             @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
             @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingParamState state,
             @RequestParam(value = "from", defaultValue = "0") Integer from,
-            @RequestParam(value = "size", defaultValue = "20") Integer size
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         log.info("Find all bookings for user {}", userId);
-        return bookingService.findAll(userId, state, from, size);
+        return withNextCursor(
+                bookingService.findAll(userId, state, from, size, decodeCursor(cursor)),
+                size
+        );
     }
 
     @GetMapping ("/owner")
-    public Collection<BookingDto> findAllByOwner(
+    public ResponseEntity<Collection<BookingDto>> findAllByOwner(
             @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
             @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingParamState state,
             @RequestParam(value = "from", defaultValue = "0") Integer from,
-            @RequestParam(value = "size", defaultValue = "20") Integer size
+            @RequestParam(value = "size", defaultValue = "20") Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         log.info("Find all bookings for owner {}", userId);
-        return bookingService.findAllByOwner(userId, state, from, size);
+        return withNextCursor(
+                bookingService.findAllByOwner(userId, state, from, size, decodeCursor(cursor)),
+                size
+        );
     }
 
     @GetMapping("/{id}")
@@ -56,6 +68,16 @@ public class BookingController {
         return bookingService.create(userId, bookingPostDto);
     }
 
+    // Результаты в порядке запроса, у каждого свой статус: одно отклонённое бронирование не отменяет остальные
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createAll(
+            @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
+            @RequestBody List<BookingPostDto> bookingPostDtos
+    ) {
+        log.info("Create {} bookings for user {}", bookingPostDtos.size(), userId);
+        return bookingService.createAll(userId, bookingPostDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto update(
             @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
@@ -65,4 +87,32 @@ public class BookingController {
         log.info("Update booking state for user - {}, booking - {}, approved - {}", userId, bookingId, approved);
         return bookingService.setApproved(userId, bookingId, approved);
     }
+
+    // Результаты в порядке id из запроса
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> updateAll(
+            @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
+            @RequestParam Boolean approved,
+            @RequestBody List<Long> bookingIds
+    ) {
+        log.info("Update state of {} bookings for user - {}, approved - {}", bookingIds.size(), userId, approved);
+        return bookingService.setApprovedAll(userId, bookingIds, approved);
+    }
+
+    private BookingCursor decodeCursor(String cursor) {
+        return cursor != null ? BookingCursor.decode(cursor) : null;
+    }
+
+    // Полная страница отдаёт курсор на следующую в заголовке X-Next-Cursor
+    private ResponseEntity<Collection<BookingDto>> withNextCursor(Collection<BookingDto> bookings, Integer size) {
+        List<BookingDto> page = new ArrayList<>(bookings);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() == size) {
+            response.header(
+                    Pagination.HTTP_NEXT_CURSOR_HEADER,
+                    BookingCursor.of(page.get(page.size() - 1)).encode()
+            );
+        }
+        return response.body(page);
+    }
 }
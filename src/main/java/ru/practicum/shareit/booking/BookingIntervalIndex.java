@@ -0,0 +1,406 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.ReplicaRoutingConfig;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+// Бронирования вещей в памяти: свободен ли интервал, последнее и следующее бронирование за O(log n) без запроса.
+// Вещь загружается из базы при первом обращении. Изменения применяются после commit, а загрузка,
+// во время которой вещь менялась, в кэш не попадает, поэтому кэш не отстаёт от базы
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final int STRIPES = 256;
+
+    @Autowired
+    private final BookingRepository bookingRepository;
+    // реплика может отставать: прочитанное с неё хранится только до конца запроса
+    @Value("${" + ReplicaRoutingConfig.REPLICA + ".url:}")
+    private String replicaUrl;
+
+    // Вещи без обращений вытесняются и при следующем запросе загружаются заново
+    @Value("${shareit.booking-index.maximum-size:10000}")
+    private long maximumSize;
+
+    private ConcurrentMap<Long, Timeline> timelines;
+    // счётчики изменений по группам вещей
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    @PostConstruct
+    void init() {
+        timelines = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .<Long, Timeline>build()
+                .asMap();
+    }
+
+    // Нет ли ожидающего или подтверждённого бронирования, пересекающего [start, end)
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return timelines(List.of(itemId)).get(itemId).isFree(nanos(start), nanos(end));
+    }
+
+    // Проверка пакета по одному снимку вещей: каждая вещь загружается не больше одного раза.
+    // Бронирования без вещи или времени считаются свободными, их отклоняет валидация
+    public boolean[] areFree(List<BookingPostDto> bookings) {
+        List<Long> itemIds = bookings.stream()
+                .map(BookingPostDto::getItemId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Timeline> loaded = timelines(itemIds);
+        boolean[] free = new boolean[bookings.size()];
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingPostDto booking = bookings.get(i);
+            free[i] = booking.getItemId() == null || booking.getStart() == null || booking.getEnd() == null
+                    || loaded.get(booking.getItemId()).isFree(nanos(booking.getStart()), nanos(booking.getEnd()));
+        }
+        return free;
+    }
+
+    // Закончившееся до now бронирование с наибольшим start, при совпадении start - с меньшим id
+    public Map<Long, BookingItemDto> findLast(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, BookingItemDto> result = new HashMap<>();
+        timelines(itemIds).forEach((itemId, timeline) -> {
+            Entry last = timeline.last(nanos(now));
+            if (last != null) {
+                result.put(itemId, Timeline.toDto(last));
+            }
+        });
+        return result;
+    }
+
+    // Начинающееся после now бронирование с наименьшим start, при совпадении start - с меньшим id
+    public Map<Long, BookingItemDto> findNext(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, BookingItemDto> result = new HashMap<>();
+        timelines(itemIds).forEach((itemId, timeline) -> {
+            Entry next = timeline.next(nanos(now));
+            if (next != null) {
+                result.put(itemId, Timeline.toDto(next));
+            }
+        });
+        return result;
+    }
+
+    public void add(Booking booking) {
+        Entry entry = new Entry(booking.getId(), booking.getBooker().getId(),
+                nanos(booking.getStart()), nanos(booking.getEnd()), booking.getStatus());
+        afterCommit(booking.getItem().getId(), timeline -> timeline.with(entry));
+    }
+
+    public void updateStatus(Long itemId, Long bookingId, BookingStatus status) {
+        afterCommit(itemId, timeline -> timeline.withStatus(bookingId, status));
+    }
+
+    // Нужен после изменения бронирований в обход сервиса
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        timelines.clear();
+    }
+
+    private void afterCommit(Long itemId, UnaryOperator<Timeline> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(itemId, change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(itemId, change);
+            }
+        });
+    }
+
+    // Не загруженную вещь не трогаем, но счётчик сдвигаем: параллельная загрузка могла прочитать старые данные
+    private void apply(Long itemId, UnaryOperator<Timeline> change) {
+        timelines.compute(itemId, (id, timeline) -> {
+            stamps.incrementAndGet(stripe(id));
+            return timeline == null ? null : change.apply(timeline);
+        });
+    }
+
+    private Map<Long, Timeline> timelines(Collection<Long> itemIds) {
+        Map<Long, Timeline> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            Timeline timeline = timelines.get(itemId);
+            if (timeline != null) {
+                result.put(itemId, timeline);
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        long[] loadStamps = new long[missing.size()];
+        for (int i = 0; i < missing.size(); i++) {
+            loadStamps[i] = stamps.get(stripe(missing.get(i)));
+        }
+        Map<Long, List<Entry>> entries = new HashMap<>();
+        for (BookingIntervalView view : bookingRepository.findIntervalsByItemIdIn(missing)) {
+            entries.computeIfAbsent(view.getItemId(), id -> new ArrayList<>()).add(new Entry(view.getId(),
+                    view.getBookerId(), nanos(view.getStart()), nanos(view.getEnd()), view.getStatus()));
+        }
+        // пишущая транзакция видит свои незакоммиченные строки, читающая может идти в отстающую реплику,
+        // такие данные не кэшируются
+        boolean cacheable = !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaUrl.isEmpty();
+        for (int i = 0; i < missing.size(); i++) {
+            Long itemId = missing.get(i);
+            Timeline loaded = Timeline.of(entries.getOrDefault(itemId, new ArrayList<>()).toArray(new Entry[0]));
+            long loadStamp = loadStamps[i];
+            Timeline timeline = cacheable
+                    ? timelines.compute(itemId, (id, current) -> current != null ? current
+                            : stamps.get(stripe(id)) == loadStamp ? loaded : null)
+                    : null;
+            result.put(itemId, timeline != null ? timeline : loaded);
+        }
+        return result;
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STRIPES);
+    }
+
+    private static long nanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime time(long nanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long bookerId;
+        private final long start;
+        private final long end;
+        private final BookingStatus status;
+
+        Entry(long id, long bookerId, long start, long end, BookingStatus status) {
+            this.id = id;
+            this.bookerId = bookerId;
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+
+        Entry withStatus(BookingStatus newStatus) {
+            return new Entry(id, bookerId, start, end, newStatus);
+        }
+
+        boolean isActive() {
+            return status == BookingStatus.WAITING || status == BookingStatus.APPROVED;
+        }
+    }
+
+    // Неизменяемый снимок бронирований одной вещи. Изменение строит новый снимок за O(n) без сортировки
+    private static final class Timeline {
+        private static final Comparator<Entry> BY_START = Comparator.<Entry>comparingLong(entry -> entry.start)
+                .thenComparingLong(entry -> entry.id);
+        private static final Comparator<Entry> BY_END = Comparator.comparingLong(entry -> entry.end);
+
+        // отсортированы по start, затем по id
+        private final Entry[] entries;
+        private final long[] starts;
+        // наибольший end среди активных бронирований с индексом не больше i
+        private final long[] maxActiveEnds;
+        // end по возрастанию и бронирование с наибольшим start среди закончившихся не позже
+        private final long[] sortedEnds;
+        private final Entry[] lastByEnd;
+
+        private Timeline(Entry[] entries, long[] starts, long[] maxActiveEnds, long[] sortedEnds, Entry[] lastByEnd) {
+            this.entries = entries;
+            this.starts = starts;
+            this.maxActiveEnds = maxActiveEnds;
+            this.sortedEnds = sortedEnds;
+            this.lastByEnd = lastByEnd;
+        }
+
+        static Timeline of(Entry[] unsorted) {
+            Entry[] entries = unsorted.clone();
+            Arrays.sort(entries, BY_START);
+            int size = entries.length;
+            long[] starts = new long[size];
+            for (int i = 0; i < size; i++) {
+                starts[i] = entries[i].start;
+            }
+            long[] maxActiveEnds = new long[size];
+            fillMaxActiveEnds(entries, maxActiveEnds, 0);
+            Entry[] byEnd = entries.clone();
+            Arrays.sort(byEnd, BY_END);
+            long[] sortedEnds = new long[size];
+            Entry[] lastByEnd = new Entry[size];
+            Entry last = null;
+            for (int i = 0; i < size; i++) {
+                sortedEnds[i] = byEnd[i].end;
+                last = later(last, byEnd[i]);
+                lastByEnd[i] = last;
+            }
+            return new Timeline(entries, starts, maxActiveEnds, sortedEnds, lastByEnd);
+        }
+
+        boolean isFree(long start, long end) {
+            int before = countLess(starts, end) - 1;
+            return before < 0 || maxActiveEnds[before] <= start;
+        }
+
+        Entry last(long now) {
+            int ended = countLess(sortedEnds, now) - 1;
+            return ended < 0 ? null : lastByEnd[ended];
+        }
+
+        Entry next(long now) {
+            int index = countLessOrEqual(starts, now);
+            return index < starts.length ? entries[index] : null;
+        }
+
+        // Новое бронирование вставляется на своё место в обоих порядках, остальные массивы досчитываются с места вставки.
+        // Загрузка, прочитавшая базу после commit, но до afterCommit, уже содержит бронирование: оно заменяется
+        Timeline with(Entry entry) {
+            if (Arrays.stream(entries).anyMatch(existing -> existing.id == entry.id)) {
+                Entry[] others = Arrays.stream(entries)
+                        .filter(existing -> existing.id != entry.id)
+                        .toArray(Entry[]::new);
+                Entry[] replaced = Arrays.copyOf(others, others.length + 1);
+                replaced[others.length] = entry;
+                return of(replaced);
+            }
+            int size = entries.length;
+            int position = insertionPoint(entry);
+            Entry[] newEntries = new Entry[size + 1];
+            long[] newStarts = new long[size + 1];
+            System.arraycopy(entries, 0, newEntries, 0, position);
+            System.arraycopy(entries, position, newEntries, position + 1, size - position);
+            newEntries[position] = entry;
+            System.arraycopy(starts, 0, newStarts, 0, position);
+            System.arraycopy(starts, position, newStarts, position + 1, size - position);
+            newStarts[position] = entry.start;
+            long[] newMaxActiveEnds = new long[size + 1];
+            System.arraycopy(maxActiveEnds, 0, newMaxActiveEnds, 0, position);
+            fillMaxActiveEnds(newEntries, newMaxActiveEnds, position);
+
+            int endPosition = countLess(sortedEnds, entry.end);
+            long[] newSortedEnds = new long[size + 1];
+            Entry[] newLastByEnd = new Entry[size + 1];
+            System.arraycopy(sortedEnds, 0, newSortedEnds, 0, endPosition);
+            System.arraycopy(sortedEnds, endPosition, newSortedEnds, endPosition + 1, size - endPosition);
+            newSortedEnds[endPosition] = entry.end;
+            System.arraycopy(lastByEnd, 0, newLastByEnd, 0, endPosition);
+            Entry last = endPosition > 0 ? lastByEnd[endPosition - 1] : null;
+            newLastByEnd[endPosition] = later(last, entry);
+            for (int i = endPosition; i < size; i++) {
+                newLastByEnd[i + 1] = later(lastByEnd[i], entry);
+            }
+            return new Timeline(newEntries, newStarts, newMaxActiveEnds, newSortedEnds, newLastByEnd);
+        }
+
+        // Статус не меняет порядка: заменяются все записи бронирования и пересчитываются максимумы после первой
+        Timeline withStatus(long bookingId, BookingStatus status) {
+            Entry[] newEntries = null;
+            Entry[] newLastByEnd = null;
+            int first = -1;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].id != bookingId) {
+                    continue;
+                }
+                if (newEntries == null) {
+                    newEntries = entries.clone();
+                    newLastByEnd = lastByEnd.clone();
+                    first = i;
+                }
+                Entry old = entries[i];
+                Entry updated = old.withStatus(status);
+                newEntries[i] = updated;
+                for (int j = 0; j < newLastByEnd.length; j++) {
+                    if (newLastByEnd[j] == old) {
+                        newLastByEnd[j] = updated;
+                    }
+                }
+            }
+            if (newEntries == null) {
+                return this;
+            }
+            long[] newMaxActiveEnds = maxActiveEnds.clone();
+            fillMaxActiveEnds(newEntries, newMaxActiveEnds, first);
+            return new Timeline(newEntries, starts, newMaxActiveEnds, sortedEnds, newLastByEnd);
+        }
+
+        static BookingItemDto toDto(Entry entry) {
+            return new BookingItemDto(entry.id, time(entry.start), time(entry.end), entry.bookerId, entry.status);
+        }
+
+        private int insertionPoint(Entry entry) {
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (BY_START.compare(entries[middle], entry) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static void fillMaxActiveEnds(Entry[] entries, long[] maxActiveEnds, int from) {
+            long maxActiveEnd = from > 0 ? maxActiveEnds[from - 1] : Long.MIN_VALUE;
+            for (int i = from; i < entries.length; i++) {
+                if (entries[i].isActive()) {
+                    maxActiveEnd = Math.max(maxActiveEnd, entries[i].end);
+                }
+                maxActiveEnds[i] = maxActiveEnd;
+            }
+        }
+
+        // Бронирование с большим start, при совпадении start - с меньшим id
+        private static Entry later(Entry current, Entry candidate) {
+            return current == null || candidate.start > current.start
+                    || (candidate.start == current.start && candidate.id < current.id) ? candidate : current;
+        }
+
+        // Число элементов меньше value в отсортированном массиве
+        private static int countLess(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sorted[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static int countLessOrEqual(long[] sorted, long value) {
+            return value == Long.MAX_VALUE ? sorted.length : countLess(sorted, value + 1);
+        }
+    }
+}
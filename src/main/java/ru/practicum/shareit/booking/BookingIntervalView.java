@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+// Интервал бронирования без загрузки вещи и арендатора
+public interface BookingIntervalView {
+    Long getId();
+    Long getItemId();
+    Long getBookerId();
+    LocalDateTime getStart();
+    LocalDateTime getEnd();
+    BookingStatus getStatus();
+}
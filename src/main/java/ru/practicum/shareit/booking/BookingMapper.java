@@ -1,12 +1,16 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.item.CommentDto;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
 public final class BookingMapper {
     public static BookingDto toBookingDto(Booking booking) {
@@ -28,6 +32,54 @@ public final class BookingMapper {
         return bookingsDto;
     }
 
+    // Комментарии вещей загружены заранее одним запросом
+    public static Collection<BookingDto> toBookingDto(
+            Collection<Booking> bookings,
+            Map<Long, Collection<CommentDto>> commentsByItemId
+    ) {
+        Collection<BookingDto> bookingsDto = new ArrayList<>();
+        for (Booking booking : bookings) {
+            Item item = booking.getItem();
+            bookingsDto.add(new BookingDto(
+                    booking.getId(),
+                    booking.getStart(),
+                    booking.getEnd(),
+                    item != null
+                            ? ItemMapper.toItemDto(item, commentsByItemId.getOrDefault(item.getId(), new ArrayList<>()))
+                            : null,
+                    booking.getBooker() != null ? UserMapper.toUserDto(booking.getBooker()) : null,
+                    booking.getStatus() != null ? booking.getStatus() : null
+            ));
+        }
+        return bookingsDto;
+    }
+
+    // Строки уже содержат вещь и арендатора, комментарии вещей загружены заранее одним запросом
+    public static Collection<BookingDto> toBookingDtoFromView(
+            Collection<BookingView> bookings,
+            Map<Long, Collection<CommentDto>> commentsByItemId
+    ) {
+        Collection<BookingDto> bookingsDto = new ArrayList<>();
+        for (BookingView booking : bookings) {
+            bookingsDto.add(new BookingDto(
+                    booking.getId(),
+                    booking.getStart(),
+                    booking.getEnd(),
+                    new ItemDto(
+                            booking.getItemId(),
+                            booking.getItemName(),
+                            booking.getItemDescription(),
+                            booking.getItemAvailable(),
+                            booking.getItemRequestId(),
+                            commentsByItemId.getOrDefault(booking.getItemId(), new ArrayList<>())
+                    ),
+                    new UserDto(booking.getBookerId(), booking.getBookerName(), booking.getBookerEmail()),
+                    booking.getStatus()
+            ));
+        }
+        return bookingsDto;
+    }
+
     public static BookingItemDto bookingItemDto(Booking booking) {
         return new BookingItemDto(
                 booking.getId(),
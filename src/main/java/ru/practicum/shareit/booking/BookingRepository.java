@@ -1,75 +1,179 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository {
+    // Booking lists select only the BookingDto columns, the request id is read from the item's foreign key
+    String VIEW = " select b.id as id, b.start as start, b.end as end, b.status as status, " +
+            "i.id as itemId, i.name as itemName, i.description as itemDescription, " +
+            "i.available as itemAvailable, i.request.id as itemRequestId, " +
+            "u.id as bookerId, u.name as bookerName, u.email as bookerEmail " +
+            "from Booking b join b.item i join b.booker u ";
+
+    // Offset pages use the same (start, id) DESC order as the keyset queries below, so a cursor built
+    // from the last row of an offset page continues it without gaps or repeats
     // ALL
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId, Pageable pageable);
+    @Query(VIEW + "where b.booker.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdOrderByStartDesc(Long userId, Pageable pageable);
     // PAST
-    List<Booking> findByBookerIdAndEndIsBeforeOrderByStartDesc(Long userId, LocalDateTime end);
+    @Query(VIEW + "where b.booker.id = ?1 and b.end < ?2 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdAndEndIsBeforeOrderByStartDesc(Long userId, LocalDateTime end, Pageable pageable);
     // CURRENT
-    List<Booking> findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-            Long userId, LocalDateTime start, LocalDateTime end);
+    @Query(VIEW + "where b.booker.id = ?1 and b.start < ?2 and b.end > ?3 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
+            Long userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
     // FUTURE
-    List<Booking> findByBookerIdAndStartIsAfterOrderByStartDesc(Long userId, LocalDateTime start);
+    @Query(VIEW + "where b.booker.id = ?1 and b.start > ?2 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdAndStartIsAfterOrderByStartDesc(Long userId, LocalDateTime start, Pageable pageable);
     // WAITING AND REJECTED
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status);
+    @Query(VIEW + "where b.booker.id = ?1 and b.status = ?2 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status, Pageable pageable);
 
     // ALL FOR OWNER
-    @Query(value =  " SELECT b.* FROM bookings AS b " +
-            "LEFT JOIN items AS i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllByOwner(Long userId, Pageable pageable);
+    @Query(VIEW + "where i.owner.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwner(Long userId, Pageable pageable);
 
     // PAST FOR OWNER
-    @Query(value =  " SELECT b.* FROM bookings AS b " +
-            "LEFT JOIN items AS i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.end_date < NOW() " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllByOwnerInPast(Long userId);
+    @Query(VIEW + "where i.owner.id = ?1 and b.end < current_timestamp " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerInPast(Long userId, Pageable pageable);
 
     // CURRENT FOR OWNER
-    @Query(value =  " SELECT b.* FROM bookings AS b " +
-            "LEFT JOIN items AS i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.start_date < NOW() " +
-            "AND b.end_date > NOW()" +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllByOwnerInCurrent(Long userId);
+    @Query(VIEW + "where i.owner.id = ?1 and b.start < current_timestamp and b.end > current_timestamp " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerInCurrent(Long userId, Pageable pageable);
 
     // FUTURE FOR OWNER
-    @Query(value =  " SELECT b.* FROM bookings AS b " +
-            "LEFT JOIN items AS i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.start_date > NOW() " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllByOwnerInFuture(Long userId);
+    @Query(VIEW + "where i.owner.id = ?1 and b.start > current_timestamp " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerInFuture(Long userId, Pageable pageable);
 
     // Find all bookings for owner where status waiting or rejected
-    @Query(value =  " SELECT b.* FROM bookings AS b " +
-            "LEFT JOIN items AS i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 AND b.status = ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllByOwnerByStatus(Long userId, String status);
-
-    // Find last booking
-    Optional<Booking> findFirstByItemIdAndEndIsBeforeOrderByStartDesc(Long itemId, LocalDateTime start);
-    // Find next booking
-    Optional<Booking> findFirstByItemIdAndStartIsAfterOrderByStart(Long itemId, LocalDateTime start);
-
-    // Count bookings where end date is before
+    @Query(VIEW + "where i.owner.id = ?1 and b.status = ?2 " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerByStatus(Long userId, BookingStatus status, Pageable pageable);
+
+    // Keyset pagination: bookings ordered by (start, id) DESC after the cursor.
+    // The redundant "start <= cursor" bound is what an index on (..., start_date) can seek on,
+    // the "or" alone is only applied as a filter while scanning from the newest row
+    // ALL
+    @Query(VIEW + "where b.booker.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdAfterCursor(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    // PAST
+    @Query(VIEW + "where b.booker.id = ?1 and b.end < ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findPastByBookerIdAfterCursor(
+            Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    // CURRENT
+    @Query(VIEW + "where b.booker.id = ?1 and b.start < ?4 and b.end > ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findCurrentByBookerIdAfterCursor(
+            Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    // FUTURE
+    @Query(VIEW + "where b.booker.id = ?1 and b.start > ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findFutureByBookerIdAfterCursor(
+            Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    // WAITING AND REJECTED
+    @Query(VIEW + "where b.booker.id = ?1 and b.status = ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findByBookerIdAndStatusAfterCursor(
+            Long userId, LocalDateTime start, Long id, BookingStatus status, Pageable pageable);
+
+    // ALL FOR OWNER
+    @Query(VIEW + "where i.owner.id = ?1 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerAfterCursor(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    // PAST FOR OWNER
+    @Query(VIEW + "where i.owner.id = ?1 and b.end < ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerInPastAfterCursor(
+            Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    // CURRENT FOR OWNER
+    @Query(VIEW + "where i.owner.id = ?1 and b.start < ?4 and b.end > ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerInCurrentAfterCursor(
+            Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    // FUTURE FOR OWNER
+    @Query(VIEW + "where i.owner.id = ?1 and b.start > ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerInFutureAfterCursor(
+            Long userId, LocalDateTime start, Long id, LocalDateTime now, Pageable pageable);
+
+    // WAITING AND REJECTED FOR OWNER
+    @Query(VIEW + "where i.owner.id = ?1 and b.status = ?4 " +
+            "and b.start <= ?2 and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    List<BookingView> findAllByOwnerByStatusAfterCursor(
+            Long userId, LocalDateTime start, Long id, BookingStatus status, Pageable pageable);
+
+    // All booking intervals of a set of items, without loading entities
+    @Query(" select b.id as id, b.item.id as itemId, b.booker.id as bookerId, " +
+            "b.start as start, b.end as end, b.status as status " +
+            "from Booking b where b.item.id in ?1")
+    List<BookingIntervalView> findIntervalsByItemIdIn(Collection<Long> itemIds);
+
+    // Count bookings where end date is before. The derived query would join users and items
+    // and filter on their ids, which hides idx_bookings_booker_item_end from the planner
+    @Query(" select count(b) from Booking b " +
+            "where b.booker.id = ?1 and b.item.id = ?2 and b.status = ?3 and b.end < ?4")
     Long countByBookerIdAndItemIdAndStatusAndEndIsBefore(
             Long userId,
             Long itemId,
             BookingStatus status,
             LocalDateTime end
     );
+
+    // Bookings among the given ids whose item belongs to the owner, ownership is checked by the join
+    @EntityGraph("Booking.details")
+    @Query(" select b from Booking b " +
+            "where b.id in ?1 and b.item.owner.id = ?2")
+    List<Booking> findAllByIdInAndOwner(Collection<Long> ids, Long ownerId);
+
+    // Change status of all still waiting bookings with one statement, returns the number of updated rows
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(" update Booking b set b.status = ?2, b.version = b.version + 1 " +
+            "where b.id in ?1 and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING")
+    int updateAllStatusIfWaiting(Collection<Long> ids, BookingStatus status);
+
+    // Change status only if nobody changed the booking since it was read, returns the number of updated rows.
+    // Loaded bookings are stale afterwards, so the persistence context is flushed before and cleared after
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(" update Booking b set b.status = ?3, b.version = b.version + 1 " +
+            "where b.id = ?1 and b.version = ?2 and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING")
+    int updateStatusIfWaiting(Long id, Long version, BookingStatus status);
 }
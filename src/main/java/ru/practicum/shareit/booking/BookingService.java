@@ -1,11 +1,19 @@
 package ru.practicum.shareit.booking;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface BookingService {
-    Collection<BookingDto> findAll(Long userId, BookingParamState state, Integer from, Integer size);
-    Collection<BookingDto> findAllByOwner(Long userId, BookingParamState state, Integer from, Integer size);
+    // Максимальное число бронирований в одном пакете создания или подтверждения
+    int MAX_BATCH_SIZE = 100;
+
+    Collection<BookingDto> findAll(
+            Long userId, BookingParamState state, Integer from, Integer size, BookingCursor cursor);
+    Collection<BookingDto> findAllByOwner(
+            Long userId, BookingParamState state, Integer from, Integer size, BookingCursor cursor);
     BookingDto findOne(Long userId, Long id);
     BookingDto create(Long userId, BookingPostDto bookingPostDto);
+    List<BookingBatchResultDto> createAll(Long userId, List<BookingPostDto> bookingPostDtos);
     BookingDto setApproved(Long userId, Long bookingId, Boolean isApproved);
+    List<BookingBatchResultDto> setApprovedAll(Long userId, List<Long> bookingIds, Boolean isApproved);
 }
@@ -2,19 +2,34 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.CommentRepository;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,89 +40,184 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     @Autowired
     private final ItemRepository itemRepository;
+    @Autowired
+    private final CommentRepository commentRepository;
+    @Autowired
+    private final BookingIntervalIndex bookingIntervalIndex;
+    // Проверка пересечения и вставка бронирования одной вещи идут по очереди
+    private final ItemLocks itemLocks = new ItemLocks(256);
 
     @Override
-    public Collection<BookingDto> findAll(Long userId, BookingParamState state, Integer from, Integer size) {
-        findUser(userId);
-        if (from < 0) {
-            throw new BadRequestException("Параметр from не должен быть отрицательным");
+    @Transactional(readOnly = true)
+    public Collection<BookingDto> findAll(
+            Long userId,
+            BookingParamState state,
+            Integer from,
+            Integer size,
+            BookingCursor cursor
+    ) {
+        checkUser(userId);
+        validatePage(from, size, cursor);
+
+        List<BookingView> bookings = cursor == null
+                ? findByBooker(userId, state, PageRequest.of((int) from / size, size))
+                : findByBookerAfterCursor(userId, state, cursor, PageRequest.of(0, size));
+        return toBookingDtoFromView(bookings);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<BookingDto> findAllByOwner(
+            Long userId,
+            BookingParamState state,
+            Integer from,
+            Integer size,
+            BookingCursor cursor
+    ) {
+        checkUser(userId);
+        validatePage(from, size, cursor);
+
+        List<BookingView> bookings = cursor == null
+                ? findByOwner(userId, state, PageRequest.of((int) from / size, size))
+                : findByOwnerAfterCursor(userId, state, cursor, PageRequest.of(0, size));
+        return toBookingDtoFromView(bookings);
+    }
+
+    // Комментарии всех вещей страницы загружаются одним запросом
+    private Collection<BookingDto> toBookingDto(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new ArrayList<>();
         }
-        if (size <= 0) {
-            throw new BadRequestException("Параметр size должен быть больше нуля");
+        Set<Long> itemIds = bookings.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        return BookingMapper.toBookingDto(
+                bookings,
+                CommentMapper.commentDtoByItemId(commentRepository.findAllByItemIdIn(itemIds))
+        );
+    }
+
+    // Вещь и арендатор уже в строках страницы, отдельным запросом загружаются только комментарии
+    private Collection<BookingDto> toBookingDtoFromView(List<BookingView> bookings) {
+        if (bookings.isEmpty()) {
+            return new ArrayList<>();
         }
+        Set<Long> itemIds = bookings.stream().map(BookingView::getItemId).collect(Collectors.toSet());
+        return BookingMapper.toBookingDtoFromView(
+                bookings,
+                CommentMapper.commentDtoByItemId(commentRepository.findAllByItemIdIn(itemIds))
+        );
+    }
 
-        List<Booking> bookings;
+    private List<BookingView> findByBooker(Long userId, BookingParamState state, Pageable pageable) {
         switch (state)
         {
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                        userId, LocalDateTime.now(), LocalDateTime.now());
-                break;
+                return bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
+                        userId, LocalDateTime.now(), LocalDateTime.now(), pageable);
             case PAST:
-                bookings = bookingRepository.findByBookerIdAndEndIsBeforeOrderByStartDesc(
-                        userId, LocalDateTime.now());
-                break;
+                return bookingRepository.findByBookerIdAndEndIsBeforeOrderByStartDesc(
+                        userId, LocalDateTime.now(), pageable);
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndStartIsAfterOrderByStartDesc(
-                        userId, LocalDateTime.now());
-                break;
+                return bookingRepository.findByBookerIdAndStartIsAfterOrderByStartDesc(
+                        userId, LocalDateTime.now(), pageable);
             case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
-                        userId, BookingStatus.WAITING);
-                break;
+                return bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
+                        userId, BookingStatus.WAITING, pageable);
             case REJECTED:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
-                        userId, BookingStatus.REJECTED);
-                break;
+                return bookingRepository.findByBookerIdAndStatusOrderByStartDesc(
+                        userId, BookingStatus.REJECTED, pageable);
             case ALL:
             default:
-                Pageable pageable = PageRequest.of((int) from / size, size);
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId, pageable);
-                break;
+                return bookingRepository.findByBookerIdOrderByStartDesc(userId, pageable);
         }
-        return BookingMapper.toBookingDto(bookings);
     }
 
-    @Override
-    public Collection<BookingDto> findAllByOwner(Long userId, BookingParamState state, Integer from, Integer size) {
-        findUser(userId);
-        if (from < 0) {
-            throw new BadRequestException("Параметр from не должен быть отрицательным");
+    // Keyset-режим: страница начинается сразу после (start, id) из курсора
+    private List<BookingView> findByBookerAfterCursor(
+            Long userId,
+            BookingParamState state,
+            BookingCursor cursor,
+            Pageable pageable
+    ) {
+        switch (state)
+        {
+            case CURRENT:
+                return bookingRepository.findCurrentByBookerIdAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), LocalDateTime.now(), pageable);
+            case PAST:
+                return bookingRepository.findPastByBookerIdAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), LocalDateTime.now(), pageable);
+            case FUTURE:
+                return bookingRepository.findFutureByBookerIdAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), LocalDateTime.now(), pageable);
+            case WAITING:
+                return bookingRepository.findByBookerIdAndStatusAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), BookingStatus.WAITING, pageable);
+            case REJECTED:
+                return bookingRepository.findByBookerIdAndStatusAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), BookingStatus.REJECTED, pageable);
+            case ALL:
+            default:
+                return bookingRepository.findByBookerIdAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), pageable);
         }
-        if (size <= 0) {
-            throw new BadRequestException("Параметр size должен быть больше нуля");
+    }
+
+    private List<BookingView> findByOwner(Long userId, BookingParamState state, Pageable pageable) {
+        switch (state)
+        {
+            case CURRENT:
+                return bookingRepository.findAllByOwnerInCurrent(userId, pageable);
+            case PAST:
+                return bookingRepository.findAllByOwnerInPast(userId, pageable);
+            case FUTURE:
+                return bookingRepository.findAllByOwnerInFuture(userId, pageable);
+            case WAITING:
+                return bookingRepository.findAllByOwnerByStatus(
+                        userId, BookingStatus.WAITING, pageable);
+            case REJECTED:
+                return bookingRepository.findAllByOwnerByStatus(
+                        userId, BookingStatus.REJECTED, pageable);
+            case ALL:
+            default:
+                return bookingRepository.findAllByOwner(userId, pageable);
         }
+    }
 
-        List<Booking> bookings;
+    // Keyset-режим: страница начинается сразу после (start, id) из курсора
+    private List<BookingView> findByOwnerAfterCursor(
+            Long userId,
+            BookingParamState state,
+            BookingCursor cursor,
+            Pageable pageable
+    ) {
         switch (state)
         {
             case CURRENT:
-                bookings = bookingRepository.findAllByOwnerInCurrent(userId);
-                break;
+                return bookingRepository.findAllByOwnerInCurrentAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), LocalDateTime.now(), pageable);
             case PAST:
-                bookings = bookingRepository.findAllByOwnerInPast(userId);
-                break;
+                return bookingRepository.findAllByOwnerInPastAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), LocalDateTime.now(), pageable);
             case FUTURE:
-                bookings = bookingRepository.findAllByOwnerInFuture(userId);
-                break;
+                return bookingRepository.findAllByOwnerInFutureAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), LocalDateTime.now(), pageable);
             case WAITING:
-                bookings = bookingRepository.findAllByOwnerByStatus(userId, BookingStatus.WAITING.toString());
-                break;
+                return bookingRepository.findAllByOwnerByStatusAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), BookingStatus.WAITING, pageable);
             case REJECTED:
-                bookings = bookingRepository.findAllByOwnerByStatus(userId, BookingStatus.REJECTED.toString());
-                break;
+                return bookingRepository.findAllByOwnerByStatusAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), BookingStatus.REJECTED, pageable);
             case ALL:
             default:
-                Pageable pageable = PageRequest.of((int) from / size, size);
-                bookings = bookingRepository.findAllByOwner(userId, pageable);
-                break;
+                return bookingRepository.findAllByOwnerAfterCursor(
+                        userId, cursor.getStart(), cursor.getId(), pageable);
         }
-        return BookingMapper.toBookingDto(bookings);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto findOne(Long userId, Long id) {
-        findUser(userId);
+        checkUser(userId);
         Booking booking = findBooking(id);
         if (!checkIsBooker(userId, booking) && !checkIsOwner(userId, booking)) {
             throw new NotFoundException(String.format("Вы не являетесь автором бронирования или владельцем вещи"));
@@ -116,19 +226,117 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto create(Long userId, BookingPostDto bookingPostDto) {
         User user = findUser(userId);
         Item item = findItem(bookingPostDto.getItemId());
-        if (item.getOwner().getId() == userId) {
+        if (item.getOwner().getId().equals(userId)) {
             throw new NotFoundException(String.format("Собственник не может бронировать свою вещь"));
         }
-        validationBooking(bookingPostDto);
-        Booking booking = bookingRepository.save(BookingMapper.toNewBooking(bookingPostDto, user, item));
+        validationBooking(bookingPostDto, item);
+        Booking booking = itemLocks.withLock(item.getId(), () -> {
+            if (!bookingIntervalIndex.isFree(item.getId(), bookingPostDto.getStart(), bookingPostDto.getEnd())) {
+                throw new ConflictException(
+                        String.format("Вещь %d уже забронирована на эти даты", item.getId()));
+            }
+            Booking saved;
+            try {
+                saved = bookingRepository.save(BookingMapper.toNewBooking(bookingPostDto, user, item));
+            } catch (DataIntegrityViolationException e) {
+                // на PostgreSQL пересечение с бронированием из другого экземпляра приложения ловит ограничение
+                throw new ConflictException(
+                        String.format("Вещь %d уже забронирована на эти даты", item.getId()));
+            }
+            // индекс обновляется после commit, ещё под блокировкой вещи
+            bookingIntervalIndex.add(saved);
+            return saved;
+        });
         return BookingMapper.toBookingDto(booking);
     }
 
+    // Каждое бронирование проверяется отдельно, ошибка одного не отменяет остальные.
+    // Пользователь и вещи загружаются один раз, принятые бронирования вставляются одним JDBC пакетом
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createAll(Long userId, List<BookingPostDto> bookingPostDtos) {
+        if (bookingPostDtos.isEmpty() || bookingPostDtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException(
+                    String.format("В пакете должно быть от 1 до %d бронирований", MAX_BATCH_SIZE));
+        }
+        User user = findUser(userId);
+        Set<Long> itemIds = bookingPostDtos.stream()
+                .map(BookingPostDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingPostDtos.size()];
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+        itemLocks.withLocks(items.keySet(), () -> {
+            boolean[] free = bookingIntervalIndex.areFree(bookingPostDtos);
+            for (int i = 0; i < bookingPostDtos.size(); i++) {
+                BookingPostDto bookingPostDto = bookingPostDtos.get(i);
+                try {
+                    accepted.add(validationBatchBooking(bookingPostDto, user, items, free[i], accepted));
+                    acceptedPositions.add(i);
+                } catch (NotFoundException e) {
+                    results[i] = new BookingBatchResultDto(HttpStatus.NOT_FOUND.value(), null, e.getMessage());
+                } catch (BadRequestException e) {
+                    results[i] = new BookingBatchResultDto(HttpStatus.BAD_REQUEST.value(), null, e.getMessage());
+                } catch (ConflictException e) {
+                    results[i] = new BookingBatchResultDto(HttpStatus.CONFLICT.value(), null, e.getMessage());
+                }
+            }
+            try {
+                bookingRepository.insertAll(accepted);
+            } catch (DataIntegrityViolationException e) {
+                // на PostgreSQL пересечение с бронированием из другого экземпляра приложения ловит ограничение
+                throw new ConflictException("Вещи пакета уже забронированы на эти даты, повторите попытку");
+            }
+            accepted.forEach(bookingIntervalIndex::add);
+            return null;
+        });
+        if (!accepted.isEmpty()) {
+            Iterator<Integer> positions = acceptedPositions.iterator();
+            for (BookingDto bookingDto : toBookingDto(accepted)) {
+                results[positions.next()] = new BookingBatchResultDto(HttpStatus.CREATED.value(), bookingDto, null);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Проверки create для одного бронирования пакета, пересечения ищутся и в индексе, и среди уже принятых
+    private Booking validationBatchBooking(
+            BookingPostDto bookingPostDto,
+            User user,
+            Map<Long, Item> items,
+            boolean free,
+            List<Booking> accepted
+    ) {
+        Item item = items.get(bookingPostDto.getItemId());
+        if (item == null) {
+            throw new NotFoundException(String.format("Вещь %d не найдена", bookingPostDto.getItemId()));
+        }
+        if (item.getOwner().getId().equals(user.getId())) {
+            throw new NotFoundException("Собственник не может бронировать свою вещь");
+        }
+        if (bookingPostDto.getStart() == null || bookingPostDto.getEnd() == null) {
+            throw new BadRequestException("Время start и end должно быть указано");
+        }
+        validationBooking(bookingPostDto, item);
+        boolean overlapsAccepted = accepted.stream().anyMatch(booking -> booking.getItem().getId().equals(item.getId())
+                && booking.getStart().isBefore(bookingPostDto.getEnd())
+                && booking.getEnd().isAfter(bookingPostDto.getStart()));
+        if (!free || overlapsAccepted) {
+            throw new ConflictException(String.format("Вещь %d уже забронирована на эти даты", item.getId()));
+        }
+        return BookingMapper.toNewBooking(bookingPostDto, user, item);
+    }
+
+    @Transactional
     public BookingDto setApproved(Long userId, Long bookingId, Boolean isApproved) {
-        findUser(userId);
+        checkUser(userId);
         Booking booking = findBooking(bookingId);
         if (!checkIsOwner(userId, booking)) {
             throw new NotFoundException(
@@ -139,12 +347,85 @@ public class BookingServiceImpl implements BookingService {
                 booking.getStatus().equals(BookingStatus.REJECTED)) {
             throw new BadRequestException(String.format("Вещь %d уже проверена", bookingId));
         }
-        if (isApproved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        // Ответ собирается до UPDATE: после него прочитанное бронирование устаревает и отсоединяется
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+        // Один UPDATE без блокировок: если между чтением и записью бронирование изменили, строка не обновится
+        if (bookingRepository.updateStatusIfWaiting(bookingId, booking.getVersion(), status) == 0) {
+            throw new ConflictException(String.format("Бронирование %d уже изменено другим запросом", bookingId));
+        }
+        bookingIntervalIndex.updateStatus(booking.getItem().getId(), bookingId, status);
+        bookingDto.setStatus(status);
+        return bookingDto;
+    }
+
+    // Владение проверяется одним запросом через items.owner_id, статус меняется одним UPDATE.
+    // Если часть бронирований успели изменить другим запросом, откатывается весь пакет
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> setApprovedAll(Long userId, List<Long> bookingIds, Boolean isApproved) {
+        if (bookingIds.isEmpty() || bookingIds.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException(
+                    String.format("В пакете должно быть от 1 до %d бронирований", MAX_BATCH_SIZE));
+        }
+        checkUser(userId);
+        Set<Long> ids = bookingIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInAndOwner(ids, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<Booking> waiting = bookings.values().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                .collect(Collectors.toList());
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Map<Long, BookingBatchResultDto> updated = new HashMap<>();
+        if (!waiting.isEmpty()) {
+            // Ответы собираются до UPDATE: после него прочитанные бронирования отсоединяются
+            Iterator<Booking> waitingBookings = waiting.iterator();
+            for (BookingDto bookingDto : toBookingDto(waiting)) {
+                bookingDto.setStatus(status);
+                updated.put(waitingBookings.next().getId(),
+                        new BookingBatchResultDto(HttpStatus.OK.value(), bookingDto, null));
+            }
+            if (bookingRepository.updateAllStatusIfWaiting(updated.keySet(), status) != waiting.size()) {
+                throw new ConflictException("Бронирования пакета уже изменены другим запросом, повторите попытку");
+            }
+            for (Booking booking : waiting) {
+                bookingIntervalIndex.updateStatus(booking.getItem().getId(), booking.getId(), status);
+            }
+        }
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.add(new BookingBatchResultDto(HttpStatus.NOT_FOUND.value(), null, String.format(
+                        "Бронирование %d не найдено или пользователь %d не является владельцем вещи", bookingId, userId)));
+            } else if (updated.containsKey(bookingId)) {
+                results.add(updated.get(bookingId));
+            } else {
+                results.add(new BookingBatchResultDto(HttpStatus.BAD_REQUEST.value(), null,
+                        String.format("Вещь %d уже проверена", bookingId)));
+            }
+        }
+        return results;
+    }
+
+    private void validatePage(Integer from, Integer size, BookingCursor cursor) {
+        if (from < 0) {
+            throw new BadRequestException("Параметр from не должен быть отрицательным");
+        }
+        // страница с курсором начинается сразу после него, смещение from к ней не применимо
+        if (cursor != null && from != 0) {
+            throw new BadRequestException("Параметры from и cursor нельзя передавать вместе");
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Параметр size должен быть больше нуля");
+        }
+    }
+
+    // Только проверка существования, пользователь не загружается
+    private void checkUser(Long id) {
+        if (!userRepository.isPresent(id)) {
+            throw new NotFoundException(String.format("Пользователь %d не найден", id));
         }
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
     }
 
     private User findUser(Long id) {
@@ -162,8 +443,7 @@ public class BookingServiceImpl implements BookingService {
                 () -> new NotFoundException(String.format("Бронирование %d не найдено", id)));
     }
 
-    private void validationBooking(BookingPostDto bookingPostDto) {
-        Item item = findItem(bookingPostDto.getItemId());
+    private void validationBooking(BookingPostDto bookingPostDto, Item item) {
         if(!item.getAvailable()) {
             throw new BadRequestException(String.format("Вещь %d не доступна", bookingPostDto.getItemId()));
         }
@@ -179,14 +459,14 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private boolean checkIsOwner(Long userId, Booking booking) {
-        if (userId == booking.getItem().getOwner().getId()) {
+        if (userId.equals(booking.getItem().getOwner().getId())) {
             return true;
         }
         return false;
     }
 
     private boolean checkIsBooker(Long userId, Booking booking) {
-        if (userId == booking.getBooker().getId()) {
+        if (userId.equals(booking.getBooker().getId())) {
             return true;
         }
         return false;
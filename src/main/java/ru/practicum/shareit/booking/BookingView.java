@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+// Все поля BookingDto, кроме комментариев вещи, одной строкой без загрузки сущностей
+public interface BookingView {
+    Long getId();
+    LocalDateTime getStart();
+    LocalDateTime getEnd();
+    BookingStatus getStatus();
+    Long getItemId();
+    String getItemName();
+    String getItemDescription();
+    Boolean getItemAvailable();
+    Long getItemRequestId();
+    Long getBookerId();
+    String getBookerName();
+    String getBookerEmail();
+}
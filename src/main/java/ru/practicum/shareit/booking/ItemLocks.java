@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Фиксированный набор блокировок, вещь попадает в одну из них по id.
+// Разные вещи почти всегда берут разные блокировки, а число блокировок не растёт с числом вещей
+class ItemLocks {
+    private final ReentrantLock[] locks;
+
+    ItemLocks(int stripes) {
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withLock(Long itemId, Supplier<T> action) {
+        return withLocks(List.of(itemId), action);
+    }
+
+    // Блокировки нескольких вещей берутся по возрастанию номера, поэтому пакеты с общими вещами не блокируют
+    // друг друга навсегда. Внутри транзакции блокировки снимаются после commit или rollback, иначе вставку
+    // другого потока проверили бы до того, как она стала видна. Без транзакции - сразу после action
+    <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        List<ReentrantLock> held = itemIds.stream()
+                .map(itemId -> Math.floorMod(itemId.hashCode(), locks.length))
+                .distinct()
+                .sorted()
+                .map(stripe -> locks[stripe])
+                .collect(Collectors.toList());
+        int locked = 0;
+        boolean deferred = false;
+        try {
+            for (ReentrantLock lock : held) {
+                lock.lock();
+                locked++;
+            }
+            T result = action.get();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        unlock(held, held.size());
+                    }
+                });
+                deferred = true;
+            }
+            return result;
+        } finally {
+            if (!deferred) {
+                unlock(held, locked);
+            }
+        }
+    }
+
+    private static void unlock(List<ReentrantLock> held, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Кэш второго уровня Hibernate в памяти процесса: Caffeine через JCache.
+// Кэшируются пользователи, вещи и запросы, которые почти каждый метод сервисов загружает по id.
+// READ_WRITE обновляет и удаляет запись в той же транзакции, что и строку, поэтому save и delete
+// в сервисах не оставляют в кэше устаревших данных
+@Configuration
+@ConditionalOnProperty(name = "shareit.cache.enabled", matchIfMissing = true)
+public class EntityCacheConfig {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+    private static final List<String> REGIONS = List.of(USERS, ITEMS, REQUESTS);
+
+    // Свой CacheManager на каждый контекст: тесты с разными базами в одной JVM иначе делили бы записи с одинаковыми id
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(properties.getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(properties.getTimeToLive().toNanos()));
+            // записи Hibernate не меняются после записи, копировать их при каждом чтении незачем
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            // регион без настроек здесь - ошибка при старте, а не молча созданный кэш без ограничений
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // cache.gets{result=hit|miss}, cache.puts, cache.removals, cache.evictions с тегом cache=<регион>
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> {
+            for (String region : REGIONS) {
+                new JCacheMetrics<>(entityCacheManager.getCache(region), Tags.empty()).bindTo(registry);
+            }
+        };
+    }
+}
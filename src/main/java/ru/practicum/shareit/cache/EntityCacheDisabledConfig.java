@@ -0,0 +1,23 @@
+package ru.practicum.shareit.cache;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.SharedCacheMode;
+
+// shareit.cache.enabled=false. Одного отсутствия EntityCacheConfig мало: hibernate-jcache в classpath,
+// кэш второго уровня у Hibernate включён по умолчанию и создал бы регионы @Cache без ограничений
+@Configuration
+@ConditionalOnProperty(name = "shareit.cache.enabled", havingValue = "false")
+public class EntityCacheDisabledConfig {
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheDisabledHibernateProperties() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+            properties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.NONE);
+        };
+    }
+}
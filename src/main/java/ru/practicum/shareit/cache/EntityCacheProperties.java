@@ -0,0 +1,20 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Кэш второго уровня Hibernate, свойства shareit.cache.*
+@Data
+@Component
+@ConfigurationProperties("shareit.cache")
+public class EntityCacheProperties {
+    // false отключает кэш второго уровня, сущности всегда читаются из базы
+    private boolean enabled = true;
+    // максимум сущностей в каждом регионе, лишние вытесняются
+    private long maximumSize = 10_000;
+    // время жизни записи с момента записи в кэш
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Результат генерации: пользователи с наибольшим числом вещей и бронирований
+@Data
+@AllArgsConstructor
+public class Dataset {
+    private Long topOwnerId;
+    private Long topBookerId;
+}
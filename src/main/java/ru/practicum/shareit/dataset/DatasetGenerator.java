@@ -0,0 +1,171 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.item.ItemSearchEngine;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Добавляет синтетические данные во все таблицы через JDBC batch, существующие строки не трогает.
+// Id задаются явно после текущих максимальных, затем счётчики identity сдвигаются за них
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetGenerator {
+    private static final String[] NAMES = {"Дрель", "Отвертка", "Пила", "Молоток", "Лестница",
+            "Палатка", "Велосипед", "Самокат", "Проектор", "Фотоаппарат"};
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "WAITING", "REJECTED"};
+    private static final String[] TABLES = {"users", "requests", "items", "comments", "bookings"};
+
+    @Autowired
+    private final JdbcTemplate jdbcTemplate;
+    @Autowired
+    private final ItemSearchEngine itemSearchEngine;
+    @Autowired
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    public Dataset generate(DatasetProperties properties) {
+        long startTime = System.nanoTime();
+        Random random = new Random(properties.getSeed());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int users = properties.getUsers();
+        int items = properties.getItems();
+        long userOffset = maxId("users");
+        long requestOffset = maxId("requests");
+        long itemOffset = maxId("items");
+        long commentOffset = maxId("comments");
+        long bookingOffset = maxId("bookings");
+
+        Batch batch = new Batch("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", properties.getBatchSize());
+        for (long id = userOffset + 1; id <= userOffset + users; id++) {
+            batch.add(id, "Пользователь " + id, "user" + id + "@mail.com");
+        }
+        batch.flush();
+
+        batch = new Batch("INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)",
+                properties.getBatchSize());
+        for (long id = requestOffset + 1; id <= requestOffset + properties.getRequests(); id++) {
+            batch.add(id, "Нужна " + NAMES[random.nextInt(NAMES.length)].toLowerCase(Locale.ROOT),
+                    userOffset + 1 + random.nextInt(users), now);
+        }
+        batch.flush();
+
+        // номер владельца каждой новой вещи, бронировать свою вещь нельзя
+        int[] owners = new int[items];
+        batch = new Batch("INSERT INTO items (id, name, description, is_available, owner_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", properties.getBatchSize());
+        for (int i = 0; i < items; i++) {
+            long id = itemOffset + 1 + i;
+            owners[i] = rank(random, users, properties.getOwnerSkew());
+            batch.add(
+                    id,
+                    NAMES[i % NAMES.length] + " " + id,
+                    NAMES[random.nextInt(NAMES.length)] + " для дома и дачи",
+                    random.nextInt(10) != 0,
+                    userOffset + 1 + owners[i],
+                    properties.getRequests() > 0 && random.nextInt(20) == 0
+                            ? requestOffset + 1 + random.nextInt(properties.getRequests()) : null
+            );
+        }
+        batch.flush();
+
+        batch = new Batch("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                properties.getBatchSize());
+        for (long id = commentOffset + 1; id <= commentOffset + properties.getComments(); id++) {
+            int item = rank(random, items, properties.getItemSkew());
+            batch.add(id, "Комментарий " + id, itemOffset + 1 + item,
+                    userOffset + 1 + booker(random, properties, owners[item]), now);
+        }
+        batch.flush();
+
+        batch = new Batch("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", properties.getBatchSize());
+        // бронирования одной вещи идут друг за другом без пересечений, начиная со случайного момента
+        // в прошлом году; у популярных вещей они уходят далеко в будущее
+        LocalDateTime start = now.toLocalDateTime().minusYears(1);
+        int[] freeFromHours = new int[items];
+        for (long id = bookingOffset + 1; id <= bookingOffset + properties.getBookings(); id++) {
+            int item = rank(random, items, properties.getItemSkew());
+            if (freeFromHours[item] == 0) {
+                freeFromHours[item] = 1 + random.nextInt(24 * 365);
+            }
+            int startHours = freeFromHours[item] + random.nextInt(24 * 3);
+            int endHours = startHours + 24 * (random.nextInt(7) + 1);
+            freeFromHours[item] = endHours;
+            batch.add(
+                    id,
+                    Timestamp.valueOf(start.plusHours(startHours)),
+                    Timestamp.valueOf(start.plusHours(endHours)),
+                    itemOffset + 1 + item,
+                    userOffset + 1 + booker(random, properties, owners[item]),
+                    STATUSES[random.nextInt(STATUSES.length)]
+            );
+        }
+        batch.flush();
+
+        for (String table : TABLES) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId(table) + 1));
+        }
+        jdbcTemplate.execute("ANALYZE");
+        itemSearchEngine.rebuild();
+        bookingIntervalIndex.clear();
+        log.info("Dataset generated in {} ms: {} users, {} requests, {} items, {} comments, {} bookings",
+                (System.nanoTime() - startTime) / 1_000_000, users, properties.getRequests(), items,
+                properties.getComments(), properties.getBookings());
+        return new Dataset(userOffset + 1, userOffset + 1 + booker(0, users));
+    }
+
+    // Номер от 0 до n - 1, малые номера выпадают тем чаще, чем больше skew
+    private static int rank(Random random, int n, double skew) {
+        return Math.min((int) (n * Math.pow(random.nextDouble(), skew)), n - 1);
+    }
+
+    // Самые активные арендаторы не совпадают с самыми крупными владельцами
+    private static int booker(int rank, int users) {
+        return (rank + users / 2) % users;
+    }
+
+    private static int booker(Random random, DatasetProperties properties, int owner) {
+        int booker = booker(rank(random, properties.getUsers(), properties.getBookerSkew()), properties.getUsers());
+        return booker == owner ? (booker + 1) % properties.getUsers() : booker;
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+    }
+
+    // Накопленные строки отправляются одним batch по заполнении
+    private class Batch {
+        private final String sql;
+        private final int size;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Batch(String sql, int size) {
+            this.sql = sql;
+            this.size = size;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Размер и форма синтетических данных, свойства shareit.dataset.*.
+// Перекос 1 даёт равномерное распределение, чем он больше, тем сильнее строки достаются первым пользователям и вещам
+@Data
+@Component
+@ConfigurationProperties("shareit.dataset")
+public class DatasetProperties {
+    private int users = 1_000;
+    private int requests = 1_000;
+    private int items = 10_000;
+    private int comments = 10_000;
+    private int bookings = 100_000;
+    // распределение вещей по владельцам
+    private double ownerSkew = 3;
+    // распределение бронирований по пользователям
+    private double bookerSkew = 3;
+    // распределение бронирований и комментариев по вещам
+    private double itemSkew = 1.5;
+    private long seed = 42;
+    private int batchSize = 10_000;
+}
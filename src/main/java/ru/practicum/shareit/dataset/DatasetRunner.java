@@ -0,0 +1,25 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Запуск генератора из командной строки:
+// java -jar shareit.jar --spring.profiles.active=dataset --shareit.dataset.bookings=5000000
+@Component
+@Profile("dataset")
+@RequiredArgsConstructor
+public class DatasetRunner implements ApplicationRunner {
+    @Autowired
+    private final DatasetGenerator datasetGenerator;
+    @Autowired
+    private final DatasetProperties datasetProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        datasetGenerator.generate(datasetProperties);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.datasource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+// Транзакции readOnly читают из кэша второго уровня, но не пишут в него: строки с отстающей реплики иначе
+// попали бы в общий кэш, пишущая транзакция загрузила бы оттуда устаревшую копию и сохранила её в основную базу.
+// Режим задаётся свойством EntityManager: find берёт его оттуда, а не из CacheMode сессии.
+// Open-session-in-view выключен, EntityManager живёт одну транзакцию, поэтому режим не сбрасывается
+public class ReplicaJpaDialect extends HibernateJpaDialect {
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (definition.isReadOnly()) {
+            entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+        return transactionData;
+    }
+}
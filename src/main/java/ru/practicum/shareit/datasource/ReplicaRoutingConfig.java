@@ -0,0 +1,59 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+// Чтение с реплики включается свойством shareit.datasource.replica.url.
+// Основная база настраивается как обычно через spring.datasource.*, реплика - через shareit.datasource.replica.*,
+// настройки Hikari у каждого пула свои: spring.datasource.hikari.* и shareit.datasource.replica.hikari.*.
+// Оба пула не бины: DataSource в контексте один, его и оборачивает SqlMonitorConfig
+@Configuration
+@ConditionalOnProperty(prefix = ReplicaRoutingConfig.REPLICA, name = "url")
+public class ReplicaRoutingConfig {
+    public static final String REPLICA = "shareit.datasource.replica";
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(primaryProperties, binder, "spring.datasource.hikari", "primary");
+        DataSourceProperties replicaProperties = binder.bind(REPLICA, DataSourceProperties.class).get();
+        HikariDataSource replica = pool(replicaProperties, binder, REPLICA + ".hikari", "replica");
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    // JpaTransactionManager берёт диалект у фабрики EntityManager, поэтому он подменяется до её инициализации
+    @Bean
+    public static BeanPostProcessor replicaJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+                    ((LocalContainerEntityManagerFactoryBean) bean).setJpaDialect(new ReplicaJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static HikariDataSource pool(
+            DataSourceProperties properties,
+            Binder binder,
+            String hikariPrefix,
+            String poolName
+    ) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(poolName);
+        binder.bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+}
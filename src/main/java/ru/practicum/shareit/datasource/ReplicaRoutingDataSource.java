@@ -0,0 +1,42 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.Map;
+
+// Транзакции readOnly читают из пула реплики, всё остальное идёт в основную базу.
+// JpaTransactionManager берёт соединение раньше, чем отмечает транзакцию как readOnly,
+// поэтому пул выбирается лениво, при первом запросе к соединению
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+            }
+        };
+        routing.setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        setTargetDataSource(routing);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -25,6 +26,13 @@ public class ErrorHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
     }
 
+    // Сущность с @Version изменили между чтением и сохранением
+    @ExceptionHandler
+    public ResponseEntity<?> handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        log.warn(e.getMessage());
+        return new ResponseEntity<>("Данные изменены другим запросом, повторите попытку", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler
     public ResponseEntity<?> handleBadRequestException(final BadRequestException e) {
         log.warn(e.getMessage());
@@ -4,6 +4,8 @@ import ru.practicum.shareit.user.User;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public class CommentMapper {
     public static CommentDto toCommentDto(Comment comment) {
@@ -15,6 +17,24 @@ public class CommentMapper {
         );
     }
 
+    public static CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(
+                comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                comment.getCreated()
+        );
+    }
+
+    public static Map<Long, Collection<CommentDto>> commentDtoByItemId(Collection<CommentView> comments) {
+        Map<Long, Collection<CommentDto>> commentsByItemId = new HashMap<>();
+        for (CommentView comment : comments) {
+            commentsByItemId.computeIfAbsent(comment.getItemId(), id -> new ArrayList<>())
+                    .add(toCommentDto(comment));
+        }
+        return commentsByItemId;
+    }
+
     public static Collection<CommentDto> commentDto(Collection<Comment> comments) {
         Collection<CommentDto> commentsDto = new ArrayList<>();
         for (Comment comment: comments
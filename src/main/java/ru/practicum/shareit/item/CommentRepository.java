@@ -1,6 +1,16 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // Comments of a page of items with the author name, in one statement
+    @Query(" select c.id as id, c.text as text, c.item.id as itemId, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a " +
+            "where c.item.id in ?1 " +
+            "order by c.id")
+    List<CommentView> findAllByItemIdIn(Collection<Long> itemIds);
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+// Комментарий вместе с id вещи и именем автора, без загрузки сущностей
+public interface CommentView {
+    Long getId();
+    String getText();
+    Long getItemId();
+    String getAuthorName();
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Инвертированный индекс по словам названия и описания доступных вещей.
+// Слово запроса совпадает с любым словом вещи, которое с него начинается, все слова запроса обязательны
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    @Autowired
+    private final ItemRepository itemRepository;
+
+    // слово -> id вещи -> вес слова в вещи
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // id вещи -> её слова, нужен для удаления вещи из индекса
+    private final Map<Long, Map<String, Integer>> terms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    @PostConstruct
+    public void rebuild() {
+        List<Item> items = itemRepository.findAllByAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            terms.clear();
+            for (Item item : items) {
+                put(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built for {} items", terms.size());
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<String> queryTerms = tokenize(text);
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            ids = rank(queryTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (from >= ids.size()) {
+            return new ArrayList<>();
+        }
+        List<Long> pageIds = ids.subList(from, Math.min(from + size, ids.size()));
+        Map<Long, Item> items = itemRepository.findAllByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> page = new ArrayList<>();
+        for (Long id : pageIds) {
+            Item item = items.get(id);
+            if (item != null) {
+                page.add(item);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            delete(item.getId());
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Сумма весов всех совпавших слов, вещь должна содержать каждое слово запроса
+    private List<Long> rank(List<String> queryTerms) {
+        Map<Long, Integer> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Integer> termScores = new HashMap<>();
+            for (Map<Long, Integer> posting : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                    .values()) {
+                posting.forEach((id, weight) -> termScores.merge(id, weight, Integer::sum));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+                    score.setValue(score.getValue() + termScores.get(score.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        Map<Long, Integer> result = scores;
+        return result.keySet().stream()
+                .sorted(Comparator.comparing((Long id) -> result.get(id)).reversed().thenComparing(id -> id))
+                .collect(Collectors.toList());
+    }
+
+    private void put(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Map<String, Integer> itemTerms = new HashMap<>();
+        for (String term : tokenize(item.getName())) {
+            itemTerms.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(item.getDescription())) {
+            itemTerms.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        terms.put(item.getId(), itemTerms);
+        itemTerms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                .put(item.getId(), weight));
+    }
+
+    private void delete(Long itemId) {
+        Map<String, Integer> itemTerms = terms.remove(itemId);
+        if (itemTerms == null) {
+            return;
+        }
+        for (String term : itemTerms.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(itemId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
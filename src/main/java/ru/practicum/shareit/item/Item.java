@@ -3,6 +3,9 @@ package ru.practicum.shareit.item;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.cache.EntityCacheConfig;
 import ru.practicum.shareit.requests.ItemRequest;
 import ru.practicum.shareit.user.User;
 
@@ -10,7 +13,18 @@ import javax.persistence.*;
 import java.util.Collection;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.ITEMS)
 @Table(name = "items", schema = "public")
+// Владелец и запрос загружаются вместе с вещью, а не отдельным запросом на каждую вещь
+@NamedEntityGraph(
+        name = "Item.details",
+        attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode(value = "request", subgraph = "request")
+        },
+        subgraphs = @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requestor"))
+)
 @Getter @Setter @ToString
 public class Item {
     @Id
@@ -3,25 +3,50 @@ package ru.practicum.shareit.item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.Pagination;
 import ru.practicum.shareit.user.UserController;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
 @Slf4j
 @RequiredArgsConstructor
 public class ItemController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     @Autowired
     private final ItemService itemService;
 
     @GetMapping
-    public Collection<ItemWithBookingDto> findAllByUser(
-            @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId
+    public ResponseEntity<Collection<ItemWithBookingDto>> findAllByUser(
+            @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
+            @RequestParam(value = "from", required = false) Integer from,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
-        log.info("Find all items");
-        return itemService.findAllByUser(userId);
+        // Без параметров страницы отдаются все вещи, как до появления постраничного вывода
+        if (size == null && (from != null || cursor != null)) {
+            size = DEFAULT_PAGE_SIZE;
+        }
+        if (from == null) {
+            from = 0;
+        }
+        log.info("Find all items from {} size {} cursor {} for user {}", from, size, cursor, userId);
+        Long afterId = cursor != null ? ItemCursor.decode(cursor) : null;
+        List<ItemWithBookingDto> items = new ArrayList<>(itemService.findAllByUser(userId, from, size, afterId));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (size != null && !items.isEmpty() && items.size() == size) {
+            response.header(
+                    Pagination.HTTP_NEXT_CURSOR_HEADER,
+                    ItemCursor.encode(items.get(items.size() - 1).getId())
+            );
+        }
+        return response.body(items);
     }
 
     @GetMapping("/{id}")
@@ -63,9 +88,11 @@ public class ItemController {
     @GetMapping("/search")
     public Collection<ItemDto> search(
             @RequestHeader(UserController.HTTP_USER_ID_HEADER) Long userId,
-            @RequestParam("text") String text) {
-        log.info("Search items by '{}'", text);
-        return itemService.search(userId, text);
+            @RequestParam("text") String text,
+            @RequestParam(value = "from", defaultValue = "0") Integer from,
+            @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        log.info("Search items by '{}' from {} size {}", text, from, size);
+        return itemService.search(userId, text, from, size);
     }
 
     @PostMapping("/{id}/comment")
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Курсор для постраничного вывода вещей владельца: id последней отданной вещи
+public final class ItemCursor {
+    public static String encode(Long itemId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.valueOf(itemId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(String.format("Некорректный курсор %s", cursor));
+        }
+    }
+}
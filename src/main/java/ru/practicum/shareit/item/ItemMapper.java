@@ -6,6 +6,7 @@ import ru.practicum.shareit.user.UserMapper;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
 public final class ItemMapper {
     public static ItemDto toItemDto(Item item) {
@@ -20,6 +21,18 @@ public final class ItemMapper {
         );
     }
 
+    // Комментарии переданы уже готовыми, item.getComments() не трогается
+    public static ItemDto toItemDto(Item item, Collection<CommentDto> comments) {
+        return new ItemDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getRequest() != null ? item.getRequest().getId() : null,
+                comments
+        );
+    }
+
     public static ItemWithBookingDto toItemWithBookingDto(
             Item item,
             BookingItemDto lastBooking,
@@ -37,6 +50,24 @@ public final class ItemMapper {
         );
     }
 
+    public static ItemWithBookingDto toItemWithBookingDto(
+            Item item,
+            BookingItemDto lastBooking,
+            BookingItemDto nextBooking,
+            Collection<CommentDto> comments
+    ) {
+        return new ItemWithBookingDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getRequest() != null ? item.getRequest().getId() : null,
+                comments,
+                lastBooking,
+                nextBooking
+        );
+    }
+
     public static ItemWithItemRequestDto toItemWithItemRequestDto(Item item) {
         return new ItemWithItemRequestDto(
                 item.getId(),
@@ -63,6 +94,17 @@ public final class ItemMapper {
         return itemsDto;
     }
 
+    public static Collection<ItemDto> toItemDto(
+            Collection<Item> items,
+            Map<Long, Collection<CommentDto>> commentsByItemId
+    ) {
+        Collection<ItemDto> itemsDto = new ArrayList<>();
+        for (Item item : items) {
+            itemsDto.add(toItemDto(item, commentsByItemId.getOrDefault(item.getId(), new ArrayList<>())));
+        }
+        return itemsDto;
+    }
+
     public static Item toItem(ItemDto itemDto, ItemRequest request) {
         Item item = new Item();
         item.setName(itemDto.getName());
@@ -1,15 +1,40 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerIdOrderById(Long ownerId);
+    @EntityGraph("Item.details")
+    List<Item> findAllByOwnerIdOrderById(Long ownerId, Pageable pageable);
+    // Keyset pagination: next page after the last seen item id
+    @EntityGraph("Item.details")
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderById(Long ownerId, Long afterId, Pageable pageable);
+    @EntityGraph("Item.details")
+    List<Item> findAllByAvailableTrue();
+    // Page of items found by an in-memory search engine
+    @EntityGraph("Item.details")
+    List<Item> findAllByIdIn(Collection<Long> ids);
+    // Matches in the name rank above matches only in the description
+    @EntityGraph("Item.details")
     @Query(" select i from Item i " +
             "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
             "or upper(i.description) like upper(concat('%', ?1, '%'))) " +
-            "and is_available = true")
-    List<Item> search(String text);
+            "and i.available = true " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<Item> search(String text, Pageable pageable);
+    // PostgreSQL only: full-text search over idx_items_search, ranked by ts_rank with the name weighted higher.
+    // Returns ids only, the page is loaded with the Item.details graph by findAllByIdIn.
+    // A native bigint comes back as BigInteger, hence Number
+    @Query(value = " SELECT i.id FROM items AS i " +
+            "WHERE i.is_available = true " +
+            "AND to_tsvector('simple', i.name || ' ' || i.description) @@ plainto_tsquery('simple', ?1) " +
+            "ORDER BY ts_rank(" +
+            "setweight(to_tsvector('simple', i.name), 'A') || setweight(to_tsvector('simple', i.description), 'B'), " +
+            "plainto_tsquery('simple', ?1)) DESC, i.id", nativeQuery = true)
+    List<Number> searchFullTextIds(String text, Pageable pageable);
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item;
+
+import java.util.List;
+
+// Поиск доступных вещей по тексту в названии и описании.
+// Реализация выбирается свойством shareit.search.engine: database (по умолчанию), postgres, memory, ngram
+public interface ItemSearchEngine {
+    // Максимальный размер страницы, большие size урезаются
+    int MAX_PAGE_SIZE = 100;
+    // Дальше этой позиции результаты не отдаются, глубокий OFFSET читает все пропущенные строки
+    int MAX_RESULT_WINDOW = 1000;
+
+    // Возвращает страницу найденных вещей, более релевантные идут первыми
+    List<Item> search(String text, int from, int size);
+
+    // Вызывается после сохранения вещи
+    default void index(Item item) {
+    }
+
+    // Вызывается после удаления вещи
+    default void remove(Long itemId) {
+    }
+
+    // Перечитывает все вещи, нужен после массовой вставки в обход сервисов
+    default void rebuild() {
+    }
+}
@@ -2,7 +2,12 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.*;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -14,6 +19,9 @@ import ru.practicum.shareit.user.UserRepository;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,20 +36,53 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     @Autowired
     private final ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private final ItemSearchEngine itemSearchEngine;
+    @Autowired
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
-    public Collection<ItemWithBookingDto> findAllByUser(Long userId) {
-        Collection<Item> items = itemRepository.findAllByOwnerIdOrderById(userId);
+    @Transactional(readOnly = true)
+    public Collection<ItemWithBookingDto> findAllByUser(Long userId, Integer from, Integer size, Long afterId) {
+        Collection<Item> items;
+        if (size == null) {
+            // Без размера страницы отдаются все вещи владельца
+            items = itemRepository.findAllByOwnerIdOrderById(userId, Pageable.unpaged());
+        } else {
+            validatePage(from, size);
+            items = afterId != null
+                    ? itemRepository.findAllByOwnerIdAndIdGreaterThanOrderById(userId, afterId, PageRequest.of(0, size))
+                    : itemRepository.findAllByOwnerIdOrderById(userId, new OffsetPageRequest(from, size));
+        }
         Collection<ItemWithBookingDto> itemsDto = new ArrayList<>();
+        if (items.isEmpty()) {
+            return itemsDto;
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingItemDto> lastBookings = bookingIntervalIndex.findLast(itemIds, now);
+        Map<Long, BookingItemDto> nextBookings = bookingIntervalIndex.findNext(itemIds, now);
+        Map<Long, Collection<CommentDto>> comments = findCommentsByItemId(itemIds);
         for (Item item: items) {
-            itemsDto.add(getItemWithBookingDto(userId, item));
+            itemsDto.add(ItemMapper.toItemWithBookingDto(
+                    item,
+                    lastBookings.get(item.getId()),
+                    nextBookings.get(item.getId()),
+                    comments.getOrDefault(item.getId(), new ArrayList<>())
+            ));
         }
         return itemsDto;
     }
 
+    // Комментарии страницы вещей одним запросом, вместе с именами авторов
+    private Map<Long, Collection<CommentDto>> findCommentsByItemId(Collection<Long> itemIds) {
+        return CommentMapper.commentDtoByItemId(commentRepository.findAllByItemIdIn(itemIds));
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public ItemWithBookingDto findOneByUser(Long userId, Long itemId) {
-        findUser(userId);
+        checkUser(userId);
         Item item = findItem(itemId);
         return getItemWithBookingDto(userId, item);
     }
@@ -50,18 +91,17 @@ public class ItemServiceImpl implements ItemService {
     private ItemWithBookingDto getItemWithBookingDto(Long userId, Item item) {
         BookingItemDto lastBookingDto = null;
         BookingItemDto nextBookingDto = null;
-        if (userId == item.getOwner().getId()) {
-            Booking lastBooking = bookingRepository.
-                    findFirstByItemIdAndEndIsBeforeOrderByStartDesc(item.getId(), LocalDateTime.now()).orElse(null);
-            Booking nextBooking = bookingRepository.
-                    findFirstByItemIdAndStartIsAfterOrderByStart(item.getId(), LocalDateTime.now()).orElse(null);
-            lastBookingDto = lastBooking != null ? BookingMapper.bookingItemDto(lastBooking) : null;
-            nextBookingDto = nextBooking != null ? BookingMapper.bookingItemDto(nextBooking) : null;
+        if (userId.equals(item.getOwner().getId())) {
+            List<Long> itemIds = List.of(item.getId());
+            LocalDateTime now = LocalDateTime.now();
+            lastBookingDto = bookingIntervalIndex.findLast(itemIds, now).get(item.getId());
+            nextBookingDto = bookingIntervalIndex.findNext(itemIds, now).get(item.getId());
         }
         return ItemMapper.toItemWithBookingDto(item, lastBookingDto, nextBookingDto);
     }
 
     @Override
+    @Transactional
     public ItemDto add(Long userId, ItemDto itemDto) {
         validationItem(itemDto);
         User user = findUser(userId);
@@ -72,10 +112,12 @@ public class ItemServiceImpl implements ItemService {
         Item item = ItemMapper.toItem(itemDto, itemRequest);
         item.setOwner(user);
         Item saveItem = itemRepository.save(item);
+        afterCommit(() -> itemSearchEngine.index(saveItem));
         return ItemMapper.toItemDto(saveItem);
     }
 
     @Override
+    @Transactional
     public CommentDto createComment(Long userId, Long itemId, CommentPostDto commentPostDto) {
         validationComment(commentPostDto);
         User user = findUser(userId);
@@ -99,9 +141,11 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
     public ItemDto update(Long userId, Long id, ItemDto itemDto) {
         Item item = findItem(id);
-        if (!item.getOwner().equals(findUser(userId))) {
+        if (!userId.equals(item.getOwner().getId())) {
+            checkUser(userId);
             throw new NotFoundException("У пользователя нет такой вещи");
         }
         if (itemDto.getName() != null) {
@@ -117,24 +161,64 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(findItemRequest(itemDto.getRequestId()));
         }
         Item updatedItem = itemRepository.save(item);
+        afterCommit(() -> itemSearchEngine.index(updatedItem));
         return ItemMapper.toItemDto(updatedItem);
     }
 
     @Override
+    @Transactional
     public Boolean delete(Long userId, Long id) {
-        findUser(id);
-        findItem(id);
-        itemRepository.deleteById(id);
+        Item item = findItem(id);
+        if (!userId.equals(item.getOwner().getId())) {
+            checkUser(userId);
+            throw new NotFoundException("У пользователя нет такой вещи");
+        }
+        itemRepository.delete(item);
+        afterCommit(() -> itemSearchEngine.remove(id));
         return true;
     }
 
     @Override
-    public Collection<ItemDto> search(Long userId, String text) {
+    @Transactional(readOnly = true)
+    public Collection<ItemDto> search(Long userId, String text, Integer from, Integer size) {
+        validatePage(from, size);
+        int pageSize = Math.min(size, ItemSearchEngine.MAX_PAGE_SIZE);
+        if (from + pageSize > ItemSearchEngine.MAX_RESULT_WINDOW) {
+            throw new BadRequestException(String.format(
+                    "Поиск ограничен первыми %d результатами", ItemSearchEngine.MAX_RESULT_WINDOW));
+        }
         if (text.isEmpty())
             return new ArrayList<>();
-        User user = findUser(userId);
-        Collection<Item> items = itemRepository.search(text);
-        return ItemMapper.toItemDto(items);
+        checkUser(userId);
+        Collection<Item> items = itemSearchEngine.search(text, from, pageSize);
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        return ItemMapper.toItemDto(items, findCommentsByItemId(itemIds));
+    }
+
+    // Поиск в памяти не должен видеть вещь до commit и терять её при откате
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void validatePage(Integer from, Integer size) {
+        if (from < 0) {
+            throw new BadRequestException("Параметр from не должен быть отрицательным");
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Параметр size должен быть больше нуля");
+        }
     }
 
     private Item findItem(Long id) {
@@ -142,6 +226,13 @@ public class ItemServiceImpl implements ItemService {
                 () -> new NotFoundException(String.format("Вещь %d не найден", id)));
     }
 
+    // Только проверка существования, пользователь не загружается
+    private void checkUser(Long id) {
+        if (!userRepository.isPresent(id)) {
+            throw new NotFoundException(String.format("Пользователь %d не найден", id));
+        }
+    }
+
     private User findUser(Long id) {
         return userRepository.findById(id).orElseThrow(
                 () -> new NotFoundException(String.format("Пользователь %d не найден", id)));
@@ -0,0 +1,288 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Триграммный индекс по названию и описанию доступных вещей, ищет подстроку как LIKE '%text%'.
+// Для каждой триграммы хранится отсортированный массив id вещей, поиск пересекает эти массивы
+// и проверяет подстроку только у оставшихся кандидатов
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "ngram")
+@RequiredArgsConstructor
+public class NgramItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM = 3;
+
+    @Autowired
+    private final ItemRepository itemRepository;
+
+    // триграмма -> отсортированные id вещей
+    private Map<Long, Posting> postings = new HashMap<>();
+    // id вещи -> название и описание в нижнем регистре
+    private Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Разбиение текстов на триграммы и сортировка списков идут параллельно
+    @Override
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Document> newDocuments = itemRepository.findAllByAvailableTrue().parallelStream()
+                .map(Document::of)
+                .collect(Collectors.toConcurrentMap(Document::getId, Function.identity()));
+        ConcurrentMap<Long, List<Long>> ids = newDocuments.values().parallelStream()
+                .flatMap(document -> Arrays.stream(document.getGrams())
+                        .mapToObj(gram -> new AbstractMap.SimpleEntry<>(gram, document.getId())))
+                .collect(Collectors.groupingByConcurrent(
+                        Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+        Map<Long, Posting> newPostings = ids.entrySet().parallelStream()
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey, entry -> Posting.of(entry.getValue())));
+        lock.writeLock().lock();
+        try {
+            documents = new HashMap<>(newDocuments);
+            postings = new HashMap<>(newPostings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Trigram index built for {} items, {} trigrams", newDocuments.size(), newPostings.size());
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            ids = find(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (from >= ids.size()) {
+            return new ArrayList<>();
+        }
+        List<Long> pageIds = ids.subList(from, Math.min(from + size, ids.size()));
+        Map<Long, Item> items = itemRepository.findAllByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> page = new ArrayList<>();
+        for (Long id : pageIds) {
+            Item item = items.get(id);
+            if (item != null) {
+                page.add(item);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void index(Item item) {
+        Document document = Boolean.TRUE.equals(item.getAvailable()) ? Document.of(item) : null;
+        lock.writeLock().lock();
+        try {
+            delete(item.getId());
+            if (document != null) {
+                documents.put(document.getId(), document);
+                for (long gram : document.getGrams()) {
+                    postings.computeIfAbsent(gram, g -> new Posting()).add(document.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Совпадения в названии идут первыми, дальше по id
+    private List<Long> find(String query) {
+        List<Long> ids = new ArrayList<>();
+        if (query.length() < GRAM) {
+            // Короче триграммы: индекс не помогает, проверяем все вещи
+            for (Document document : documents.values()) {
+                if (document.contains(query)) {
+                    ids.add(document.getId());
+                }
+            }
+        } else {
+            for (long id : candidates(query)) {
+                if (documents.get(id).contains(query)) {
+                    ids.add(id);
+                }
+            }
+        }
+        ids.sort(Comparator.comparing((Long id) -> !documents.get(id).getName().contains(query))
+                .thenComparing(id -> id));
+        return ids;
+    }
+
+    // Пересечение списков всех триграмм запроса, начиная с самого короткого
+    private long[] candidates(String query) {
+        long[] grams = grams(query);
+        Posting[] lists = new Posting[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Posting::size));
+        long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = lists[i].intersect(result);
+        }
+        return result;
+    }
+
+    private void delete(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (long gram : document.getGrams()) {
+            Posting posting = postings.get(gram);
+            posting.remove(itemId);
+            if (posting.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // Различные триграммы текста, каждая упакована в long по 16 бит на символ
+    private static long[] grams(String text) {
+        long[] grams = new long[Math.max(text.length() - GRAM + 1, 0)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private static final class Document {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final long[] grams;
+
+        private Document(long id, String name, String description) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.grams = Arrays.stream(new long[][]{NgramItemSearchEngine.grams(name),
+                            NgramItemSearchEngine.grams(description)})
+                    .flatMapToLong(Arrays::stream)
+                    .distinct()
+                    .toArray();
+        }
+
+        static Document of(Item item) {
+            return new Document(
+                    item.getId(),
+                    item.getName().toLowerCase(Locale.ROOT),
+                    item.getDescription().toLowerCase(Locale.ROOT)
+            );
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long[] getGrams() {
+            return grams;
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+    }
+
+    // Отсортированный по возрастанию массив id без повторов
+    private static final class Posting {
+        private long[] ids = new long[4];
+        private int size;
+
+        static Posting of(List<Long> values) {
+            Posting posting = new Posting();
+            posting.ids = values.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+            posting.size = posting.ids.length;
+            return posting;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        // Пересечение с отсортированным массивом other слиянием
+        long[] intersect(long[] other) {
+            long[] result = new long[Math.min(size, other.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.length) {
+                if (ids[i] < other[j]) {
+                    i++;
+                } else if (ids[i] > other[j]) {
+                    j++;
+                } else {
+                    result[count++] = ids[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+}
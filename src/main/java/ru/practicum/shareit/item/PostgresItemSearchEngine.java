@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Полнотекстовый поиск PostgreSQL по GIN индексу idx_items_search.
+// База отдаёт id страницы в порядке ранга, вещи с владельцем и запросом загружаются одним запросом
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    @Autowired
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<Long> pageIds = itemRepository.searchFullTextIds(text, new OffsetPageRequest(from, size)).stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+        if (pageIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> items = itemRepository.findAllByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> page = new ArrayList<>();
+        for (Long id : pageIds) {
+            Item item = items.get(id);
+            if (item != null) {
+                page.add(item);
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingParamState;
+
+// Таймеры вокруг всех методов сервисов и запросов BookingRepository и ItemRepository.
+// Состояние BookingParamState из аргументов сервиса попадает в тег state и его таймера,
+// и таймеров всех запросов, выполненных внутри этого вызова
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricsAspect {
+    public static final String SERVICE_TIMER = "shareit.service";
+    public static final String REPOSITORY_TIMER = "shareit.repository";
+    private static final String NONE = "none";
+
+    @Autowired
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<BookingParamState> currentState = new ThreadLocal<>();
+
+    @Around("@within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        BookingParamState outerState = currentState.get();
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof BookingParamState) {
+                currentState.set((BookingParamState) arg);
+            }
+        }
+        try {
+            return time(SERVICE_TIMER, joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+        } finally {
+            if (outerState == null) {
+                currentState.remove();
+            } else {
+                currentState.set(outerState);
+            }
+        }
+    }
+
+    @Around("execution(* ru.practicum.shareit.booking.BookingRepository+.*(..))")
+    public Object timeBookingRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, "BookingRepository", joinPoint);
+    }
+
+    @Around("execution(* ru.practicum.shareit.item.ItemRepository+.*(..))")
+    public Object timeItemRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, "ItemRepository", joinPoint);
+    }
+
+    private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            BookingParamState state = currentState.get();
+            sample.stop(Timer.builder(name)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("state", state == null ? NONE : state.name())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
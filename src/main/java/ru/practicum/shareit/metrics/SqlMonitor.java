@@ -0,0 +1,78 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Время SQL запросов в пределах HTTP запроса. Медленные запросы пишутся в лог сразу с endpoint-ом и пользователем,
+// итог по HTTP запросу уходит в метрики и в DEBUG лог. Лог этого класса пишется асинхронно, см. logback-spring.xml
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlMonitor {
+    public static final String STATEMENTS_SUMMARY = "shareit.request.sql.statements";
+    public static final String TIME_TIMER = "shareit.request.sql.time";
+    public static final String SLOW_COUNTER = "shareit.sql.slow";
+
+    @Autowired
+    private final SqlProperties sqlProperties;
+    @Autowired
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<RequestStats> currentRequest = new ThreadLocal<>();
+
+    public void start(String request, String userId) {
+        currentRequest.set(new RequestStats(request, userId));
+    }
+
+    // Текст запроса собирается только для медленных
+    public void record(long nanos, Supplier<String> sql) {
+        RequestStats stats = currentRequest.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += nanos;
+        }
+        if (nanos > sqlProperties.getSlowThreshold().toNanos()) {
+            meterRegistry.counter(SLOW_COUNTER).increment();
+            log.warn("Slow query {} ms [{} user {}]: {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    stats == null ? "-" : stats.request, stats == null ? "-" : stats.userId, sql.get());
+        }
+    }
+
+    // endpoint - шаблон пути, в отличие от адреса запроса его можно использовать как тег
+    public void finish(String endpoint) {
+        RequestStats stats = currentRequest.get();
+        currentRequest.remove();
+        if (stats == null) {
+            return;
+        }
+        DistributionSummary.builder(STATEMENTS_SUMMARY)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.statements);
+        Timer.builder(TIME_TIMER)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.nanos, TimeUnit.NANOSECONDS);
+        log.debug("{} user {}: {} statements, {} ms", stats.request, stats.userId, stats.statements,
+                TimeUnit.NANOSECONDS.toMillis(stats.nanos));
+    }
+
+    private static final class RequestStats {
+        private final String request;
+        private final String userId;
+        private int statements;
+        private long nanos;
+
+        RequestStats(String request, String userId) {
+            this.request = request;
+            this.userId = userId;
+        }
+    }
+}
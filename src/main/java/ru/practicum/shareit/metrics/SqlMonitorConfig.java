@@ -0,0 +1,69 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Замена spring.jpa.show-sql: DataSource оборачивается прокси, который замеряет каждый запрос
+@Configuration
+@ConditionalOnProperty(name = "shareit.sql.enabled", matchIfMissing = true)
+public class SqlMonitorConfig {
+    // static, чтобы post processor создавался раньше остальных бинов; SqlMonitor берётся при первом запросе
+    @Bean
+    public static BeanPostProcessor sqlMonitorDataSourcePostProcessor(ObjectProvider<SqlMonitor> sqlMonitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new TimingListener(sqlMonitor))
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMonitorFilter> sqlMonitorFilter(SqlMonitor sqlMonitor) {
+        return new FilterRegistrationBean<>(new SqlMonitorFilter(sqlMonitor));
+    }
+
+    private static final class TimingListener implements QueryExecutionListener {
+        private final ObjectProvider<SqlMonitor> sqlMonitor;
+        // у ExecutionInfo время в миллисекундах, короткие запросы считались бы нулевыми
+        private final ThreadLocal<Long> start = new ThreadLocal<>();
+
+        TimingListener(ObjectProvider<SqlMonitor> sqlMonitor) {
+            this.sqlMonitor = sqlMonitor;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            start.set(System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            long nanos = System.nanoTime() - start.get();
+            start.remove();
+            sqlMonitor.getObject().record(nanos, () -> queryInfoList.stream()
+                    .map(QueryInfo::getQuery)
+                    .distinct()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.user.UserController;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Открывает и закрывает учёт SQL вокруг каждого HTTP запроса
+@RequiredArgsConstructor
+public class SqlMonitorFilter extends OncePerRequestFilter {
+    private final SqlMonitor sqlMonitor;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        sqlMonitor.start(request.getMethod() + " " + request.getRequestURI(),
+                request.getHeader(UserController.HTTP_USER_ID_HEADER));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            sqlMonitor.finish(request.getMethod() + " " + (pattern == null ? "unmapped" : pattern));
+        }
+    }
+}
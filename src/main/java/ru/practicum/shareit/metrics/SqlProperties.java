@@ -0,0 +1,18 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Учёт SQL запросов, свойства shareit.sql.*
+@Data
+@Component
+@ConfigurationProperties("shareit.sql")
+public class SqlProperties {
+    // false отключает обёртку над DataSource целиком
+    private boolean enabled = true;
+    // запросы дольше попадают в лог с WARN
+    private Duration slowThreshold = Duration.ofMillis(200);
+}
@@ -3,6 +3,10 @@ package ru.practicum.shareit.requests;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.cache.EntityCacheConfig;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
@@ -11,6 +15,8 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.REQUESTS)
 @Table(name = "requests", schema = "public")
 @Getter @Setter @ToString
 public class ItemRequest {
@@ -19,12 +25,15 @@ public class ItemRequest {
     private Long id;
     @Column(name = "description", nullable = false, length = 512)
     private String description;
-    @ManyToOne
+    // Автор запроса в ответах не нужен, проверка пользователя его тоже не загружает
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id")
     private User requestor;
     @Column(name = "created", nullable = false)
     private LocalDateTime created = LocalDateTime.now();
+    // Вещи страницы запросов загружаются одним запросом, а не по одному на каждый запрос
     @OneToMany(mappedBy = "request")
+    @BatchSize(size = 100)
     private Collection<Item> items;
 
     @Override
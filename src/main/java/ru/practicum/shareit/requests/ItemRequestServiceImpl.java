@@ -6,6 +6,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.User;
@@ -22,16 +23,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<ItemRequestDto> findAllByUser(Long userId) {
-        findUser(userId);
+        checkUser(userId);
         Collection<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(userId);
 
         return ItemRequestMapper.toItemRequestDto(itemRequests);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<ItemRequestDto> findAllByUser(Long userId, Integer from, Integer size) {
-        findUser(userId);
+        checkUser(userId);
         if (from < 0) {
             throw new BadRequestException("Параметр from не должен быть отрицательным");
         }
@@ -45,13 +48,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto findOneByUser(Long userId, Long id) {
-        findUser(userId);
+        checkUser(userId);
         ItemRequest itemRequest = findItemRequest(id);
         return ItemRequestMapper.toItemRequestDto(itemRequest);
     }
 
     @Override
+    @Transactional
     public ItemRequestDto add(Long userId, ItemRequestPostDto itemRequestPostDto) {
         User user = findUser(userId);
         validationItemRequest(itemRequestPostDto);
@@ -65,6 +70,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 () -> new NotFoundException(String.format("Запрос %d не найден", id)));
     }
 
+    // Только проверка существования, пользователь не загружается
+    private void checkUser(Long id) {
+        if (!userRepository.isPresent(id)) {
+            throw new NotFoundException(String.format("Пользователь %d не найден", id));
+        }
+    }
+
     private User findUser(Long id) {
         return userRepository.findById(id).orElseThrow(
                 () -> new NotFoundException(String.format("Пользователь %d не найден", id)));
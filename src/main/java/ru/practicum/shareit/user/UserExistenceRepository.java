@@ -0,0 +1,6 @@
+package ru.practicum.shareit.user;
+
+public interface UserExistenceRepository {
+    // Existence check without materialising the user: a primary key count
+    boolean isPresent(Long id);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.user;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class UserExistenceRepositoryImpl implements UserExistenceRepository {
+    @PersistenceContext
+    private EntityManager em;
+
+    // Always asks the database: after a delete the READ_WRITE region keeps a soft-lock entry,
+    // so a cache contains() check would still report the user
+    @Override
+    public boolean isPresent(Long id) {
+        return em.createQuery("select count(u) from User u where u.id = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult() > 0;
+    }
+}
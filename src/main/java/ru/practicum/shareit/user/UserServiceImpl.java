@@ -3,6 +3,7 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 
@@ -19,17 +20,20 @@ public class UserServiceImpl implements UserService {
     public static final Pattern pattern = Pattern.compile("^(.+)@([^@]+[^.])$");
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<UserDto> findAll() {
         List<User> users = userRepository.findAll();
         return UserMapper.toUserDto(users);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto findOne(Long id) {
         return UserMapper.toUserDto(findUser(id));
     }
 
     @Override
+    @Transactional
     public UserDto add(UserDto userDto) {
         validateEmail(userDto.getEmail());
         User addUser = userRepository.save(UserMapper.toUser(userDto));
@@ -37,6 +41,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserDto update(Long id, UserDto userDto) {
         if (userDto.getEmail() != null) {
             validateEmail(userDto.getEmail());
@@ -53,6 +58,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public Boolean delete(Long id) {
         findUser(id);
         userRepository.deleteById(id);
@@ -1,9 +1,3 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS requests CASCADE;
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-
 CREATE TABLE IF NOT EXISTS users (
     id INT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(50) NOT NULL,
@@ -54,4 +48,4 @@ CREATE TABLE IF NOT EXISTS bookings (
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_bookings_items FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_bookings_users FOREIGN KEY (booker_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
@@ -0,0 +1,23 @@
+-- BookingRepository: booker history (ALL, PAST, CURRENT, FUTURE), offset and keyset modes
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+-- BookingRepository: booker history by status (WAITING, REJECTED)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date, id);
+-- BookingRepository: countByBookerIdAndItemIdAndStatusAndEndIsBefore (comment permission)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_end ON bookings (booker_id, item_id, end_date);
+-- BookingRepository: owner history joined through items, next booking of an item
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+-- BookingRepository: last booking of an item
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+
+-- ItemRepository: items of an owner (offset and keyset modes), also joined by owner booking queries
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+-- ItemRequest.items
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- Item.comments
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- ItemRequestRepository: findAllByRequestorIdOrderByCreatedDesc
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created);
+-- ItemRequestRepository: findAllByRequestorIdNot ordered by created
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC);
@@ -0,0 +1,2 @@
+-- optimistic lock counter, every status change increments it
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
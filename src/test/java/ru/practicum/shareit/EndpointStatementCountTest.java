@@ -0,0 +1,167 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingPostDto;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentPostDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.requests.ItemRequest;
+import ru.practicum.shareit.requests.ItemRequestPostDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.UserDto;
+
+import javax.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Верхние границы числа SQL запросов на каждый endpoint.
+// Данных больше, чем один элемент, поэтому N+1 в списках превысит границу
+@Transactional
+@SpringBootTest(properties = {"db.name=test", SqlStatementCounter.PROPERTY})
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EndpointStatementCountTest {
+    private static final int ITEMS = 5;
+
+    private final MockMvc mvc;
+    private final ObjectMapper mapper;
+    private final TestFixture fixture;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+    private Booking waitingBooking;
+    private final List<Long> waitingBookingIds = new ArrayList<>();
+
+    // Владелец с ITEMS вещами, у каждой свой запрос, комментарий, прошлое и будущее бронирование
+    @BeforeEach
+    void setUp() {
+        owner = fixture.user();
+        booker = fixture.user();
+        for (int i = 0; i < ITEMS; i++) {
+            request = fixture.request(booker);
+            item = fixture.item(owner, request);
+            fixture.comment(item, fixture.user());
+            fixture.booking(item, booker, BookingStatus.APPROVED,
+                    LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+            waitingBooking = fixture.booking(item, booker, BookingStatus.WAITING,
+                    LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+            waitingBookingIds.add(fixture.booking(item, booker, BookingStatus.WAITING,
+                    LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4)).getId());
+        }
+    }
+
+    @Test
+    void testUserEndpoints() throws Exception {
+        assertStatements(1, get("/users"));
+        assertStatements(1, get("/users/{id}", owner.getId()));
+        assertStatements(1, post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new UserDto(null, "Иван", "ivan@mail.com"))));
+        assertStatements(2, patch("/users/{id}", owner.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new UserDto(null, "Иван", null))));
+        User user = fixture.user();
+        assertStatements(2, delete("/users/{id}", user.getId()));
+    }
+
+    @Test
+    void testItemEndpoints() throws Exception {
+        assertStatements(4, get("/items").header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+        assertStatements(5, get("/items/{id}", item.getId())
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+        assertStatements(3, get("/items/search").param("text", "дрель")
+                .header(UserController.HTTP_USER_ID_HEADER, booker.getId()));
+        assertStatements(2, post("/items").header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new ItemDto(null, "Дрель", "Простая дрель", true, null, null))));
+        assertStatements(3, patch("/items/{id}", item.getId())
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new ItemDto(null, "Дрель", null, null, null, null))));
+        assertStatements(4, post("/items/{id}/comment", item.getId())
+                .header(UserController.HTTP_USER_ID_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CommentPostDto("Отличная вещь"))));
+        Item unused = fixture.item(owner);
+        assertStatements(3, delete("/items/{id}", unused.getId())
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+    }
+
+    @Test
+    void testBookingEndpoints() throws Exception {
+        assertStatements(3, get("/bookings").header(UserController.HTTP_USER_ID_HEADER, booker.getId()));
+        assertStatements(3, get("/bookings/owner").param("state", "FUTURE")
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+        assertStatements(3, get("/bookings/{id}", waitingBooking.getId())
+                .header(UserController.HTTP_USER_ID_HEADER, booker.getId()));
+        // пользователь, вещь, интервалы вещи для индекса, вставка, комментарии вещи
+        assertStatements(5, post("/bookings").header(UserController.HTTP_USER_ID_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new BookingPostDto(
+                        item.getId(), LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6)))));
+        // пользователь, вещи, интервалы вещей, один пакет вставок, комментарии вещей - для любого размера пакета
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        assertStatements(5, post("/bookings/batch").header(UserController.HTTP_USER_ID_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(
+                        new BookingPostDto(item.getId(), start, start.plusDays(1)),
+                        new BookingPostDto(item.getId(), start.plusWeeks(1), start.plusWeeks(1).plusDays(1)),
+                        new BookingPostDto(item.getId(), start.plusWeeks(2), start.plusWeeks(2).plusDays(1))))));
+        // пользователь, бронирования с проверкой владельца, комментарии вещей, один UPDATE
+        assertStatements(4, patch("/bookings/batch").param("approved", "false")
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(waitingBookingIds)));
+        assertStatements(4, patch("/bookings/{id}", waitingBooking.getId()).param("approved", "true")
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+    }
+
+    @Test
+    void testItemRequestEndpoints() throws Exception {
+        assertStatements(3, get("/requests").header(UserController.HTTP_USER_ID_HEADER, booker.getId()));
+        assertStatements(4, get("/requests/all").header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+        assertStatements(3, get("/requests/{id}", request.getId())
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+        assertStatements(2, post("/requests").header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new ItemRequestPostDto("Нужна дрель"))));
+    }
+
+    private void assertStatements(int max, MockHttpServletRequestBuilder request) {
+        int statements = fixture.countStatements(() -> {
+            try {
+                mvc.perform(request.characterEncoding(StandardCharsets.UTF_8))
+                        .andExpect(status().is2xxSuccessful());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        MockHttpServletRequest servletRequest = request.buildRequest(new MockServletContext());
+        assertThat(
+                servletRequest.getMethod() + " " + servletRequest.getRequestURI(),
+                statements,
+                lessThanOrEqualTo(max)
+        );
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingPostDto;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentPostDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.requests.ItemRequest;
+import ru.practicum.shareit.requests.ItemRequestPostDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserController;
+import ru.practicum.shareit.user.UserDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Без open-in-view и без @Transactional в тесте: сессии нет ни при записи ответа, ни вокруг запроса.
+// Если маппер тронет ленивое поле вне транзакции сервиса, LazyInitializationException даст ответ 500.
+// Отдельная база, чтобы эти строки не попали в остальные тесты
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:lazy")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class OpenInViewDisabledTest {
+    private final MockMvc mvc;
+    private final ObjectMapper mapper;
+    private final ApplicationContext context;
+    private final TestFixture fixture;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+    private Booking waitingBooking;
+
+    // Запрос, вещь по запросу, прошлое подтверждённое и будущее ожидающее бронирование, каждая строка закоммичена
+    @BeforeEach
+    void setUp() {
+        owner = fixture.user();
+        booker = fixture.user();
+        request = fixture.request(booker);
+        item = fixture.item(owner, request);
+        fixture.booking(item, booker, BookingStatus.APPROVED,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+        waitingBooking = fixture.booking(item, booker, BookingStatus.WAITING,
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+    }
+
+    @Test
+    void testOpenInViewIsDisabled() {
+        assertThat(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class), anEmptyMap());
+    }
+
+    @Test
+    void testUserEndpoints() throws Exception {
+        perform(get("/users"));
+        perform(get("/users/{id}", owner.getId()))
+                .andExpect(jsonPath("$.email", equalTo(owner.getEmail())));
+        UserDto user = new UserDto(null, "Иван", UUID.randomUUID() + "@mail.com");
+        perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(user)));
+        perform(patch("/users/{id}", owner.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new UserDto(null, "Пётр Иванович", null))));
+        perform(delete("/users/{id}", fixture.user().getId()));
+    }
+
+    @Test
+    void testItemEndpoints() throws Exception {
+        perform(post("/items/{id}/comment", item.getId()).header(UserController.HTTP_USER_ID_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new CommentPostDto("Отличная дрель"))))
+                .andExpect(jsonPath("$.authorName", equalTo(booker.getName())));
+        perform(get("/items").header(UserController.HTTP_USER_ID_HEADER, owner.getId()))
+                .andExpect(jsonPath("$[0].comments", hasSize(1)))
+                .andExpect(jsonPath("$[0].lastBooking", notNullValue()))
+                .andExpect(jsonPath("$[0].nextBooking.id", equalTo(waitingBooking.getId().intValue())));
+        perform(get("/items/{id}", item.getId()).header(UserController.HTTP_USER_ID_HEADER, owner.getId()))
+                .andExpect(jsonPath("$.requestId", equalTo(request.getId().intValue())))
+                .andExpect(jsonPath("$.comments[0].authorName", equalTo(booker.getName())));
+        perform(get("/items/search").param("text", "дрель").header(UserController.HTTP_USER_ID_HEADER, booker.getId()))
+                .andExpect(jsonPath("$[0].comments", hasSize(1)));
+        perform(post("/items").header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(
+                        new ItemDto(null, "Молоток", "Молоток", true, request.getId(), null))))
+                .andExpect(jsonPath("$.requestId", equalTo(request.getId().intValue())));
+        perform(patch("/items/{id}", item.getId()).header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new ItemDto(null, "Дрель ударная", null, null, null, null))))
+                .andExpect(jsonPath("$.comments", hasSize(1)));
+        ItemDto unused = mapper.readValue(perform(post("/items")
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new ItemDto(null, "Пила", "Пила", true, null, null))))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8), ItemDto.class);
+        perform(delete("/items/{id}", unused.getId()).header(UserController.HTTP_USER_ID_HEADER, owner.getId()));
+    }
+
+    @Test
+    void testBookingEndpoints() throws Exception {
+        perform(get("/bookings").header(UserController.HTTP_USER_ID_HEADER, booker.getId()))
+                .andExpect(jsonPath("$[0].item.name", equalTo(item.getName())));
+        perform(get("/bookings/owner").header(UserController.HTTP_USER_ID_HEADER, owner.getId()))
+                .andExpect(jsonPath("$[0].booker.id", equalTo(booker.getId().intValue())));
+        perform(get("/bookings/{id}", waitingBooking.getId()).header(UserController.HTTP_USER_ID_HEADER, booker.getId()))
+                .andExpect(jsonPath("$.item.requestId", equalTo(request.getId().intValue())));
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        perform(post("/bookings").header(UserController.HTTP_USER_ID_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new BookingPostDto(item.getId(), start, start.plusDays(1)))))
+                .andExpect(jsonPath("$.item.name", equalTo(item.getName())));
+        perform(post("/bookings/batch").header(UserController.HTTP_USER_ID_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(
+                        new BookingPostDto(item.getId(), start.plusWeeks(1), start.plusWeeks(1).plusDays(1))))))
+                .andExpect(jsonPath("$[0].booking.item.name", equalTo(item.getName())));
+        perform(patch("/bookings/{id}", waitingBooking.getId()).param("approved", "true")
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId()))
+                .andExpect(jsonPath("$.booker.name", equalTo(booker.getName())));
+        Booking waiting = fixture.booking(item, booker, BookingStatus.WAITING,
+                LocalDateTime.now().plusWeeks(5), LocalDateTime.now().plusWeeks(6));
+        perform(patch("/bookings/batch").param("approved", "false")
+                .header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(waiting.getId()))))
+                .andExpect(jsonPath("$[0].booking.item.name", equalTo(item.getName())));
+    }
+
+    @Test
+    void testItemRequestEndpoints() throws Exception {
+        perform(get("/requests").header(UserController.HTTP_USER_ID_HEADER, booker.getId()))
+                .andExpect(jsonPath("$[0].items[0].name", equalTo(item.getName())));
+        perform(get("/requests/all").header(UserController.HTTP_USER_ID_HEADER, owner.getId()))
+                .andExpect(jsonPath("$[0].items", hasSize(1)));
+        perform(get("/requests/{id}", request.getId()).header(UserController.HTTP_USER_ID_HEADER, owner.getId()))
+                .andExpect(jsonPath("$.items[0].requestId", equalTo(request.getId().intValue())));
+        perform(post("/requests").header(UserController.HTTP_USER_ID_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new ItemRequestPostDto("Нужна пила"))));
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(request.characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(status().is2xxSuccessful());
+    }
+}
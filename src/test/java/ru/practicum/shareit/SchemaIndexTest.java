@@ -0,0 +1,208 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.requests.ItemRequest;
+import ru.practicum.shareit.requests.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
+
+@Transactional
+@SpringBootTest(
+        properties = {"db.name=test", SqlStatementCounter.PROPERTY},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SchemaIndexTest {
+    private static final PageRequest PAGE = PageRequest.of(0, 20);
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            BookingRepository.class,
+            ItemRepository.class,
+            CommentRepository.class,
+            ItemRequestRepository.class,
+            UserRepository.class);
+    // Запросы, которым полный просмотр таблицы нужен по смыслу или которые на H2 не выполняются
+    private static final Map<String, String> FULL_SCANS = Map.of(
+            "ItemRepository.findAllByAvailableTrue", "все доступные вещи для индекса поиска в памяти",
+            "ItemRepository.search", "LIKE '%text%' не использует B-tree индекс",
+            "ItemRepository.searchFullTextIds", "только PostgreSQL",
+            "UserRepository.findFirstByEmailContainingIgnoreCase", "подстрока без учёта регистра, сервисы не вызывают",
+            "BookingRepository.insertAll", "пакетная вставка без поиска");
+    // Сортировка, с которой сервисы вызывают запрос, влияет на выбор индекса
+    private static final Map<String, Pageable> PAGEABLES = Map.of(
+            "ItemRequestRepository.findAllByRequestorIdNot", PageRequest.of(0, 20, Sort.by("created").descending()));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager em;
+    private final ApplicationContext context;
+    private final TestFixture fixture;
+    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+
+    private User user;
+    private Item item;
+    private ItemRequest request;
+
+    @BeforeEach
+    void setUp() {
+        user = fixture.user();
+        request = fixture.request(user);
+        item = fixture.item(user, request);
+        fixture.comment(item, user);
+        fixture.booking(item, user, BookingStatus.APPROVED,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+        em.flush();
+        em.clear();
+    }
+
+    // Все методы репозиториев, объявленные в проекте, вместе с фрагментами вроде UserExistenceRepository
+    static Stream<Arguments> queries() {
+        return REPOSITORIES.stream()
+                .flatMap(repository -> Stream.concat(Stream.of(repository), projectInterfaces(repository))
+                        .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+                        .filter(method -> !method.isSynthetic() && !Modifier.isStatic(method.getModifiers()))
+                        .map(method -> Arguments.of(repository.getSimpleName() + "." + method.getName(),
+                                repository, method)))
+                .filter(arguments -> !FULL_SCANS.containsKey((String) arguments.get()[0]));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void testQueryDoesNotScanTable(String name, Class<?> repository, Method method) throws Exception {
+        SqlStatementCounter.reset();
+        method.invoke(context.getBean(repository), arguments(name, method));
+        List<String> statements = SqlStatementCounter.statements();
+
+        assertThat(statements, not(empty()));
+        for (String sql : statements) {
+            assertThat(sql, explain(sql), not(containsString("tableScan")));
+        }
+    }
+
+    // Список исключений не должен пережить удалённый или переименованный метод
+    @Test
+    void testFullScanExceptionsAreRepositoryMethods() {
+        Set<String> names = REPOSITORIES.stream()
+                .flatMap(repository -> Stream.concat(Stream.of(repository), projectInterfaces(repository))
+                        .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .collect(Collectors.toSet());
+
+        assertThat(names, hasItems(FULL_SCANS.keySet().toArray(new String[0])));
+    }
+
+    // Вещи запроса загружает @BatchSize коллекция, а не метод репозитория
+    @Test
+    void testRequestItemsBatchLoadDoesNotScanTable() {
+        ItemRequest loaded = itemRequestRepository.findById(request.getId()).orElseThrow();
+        SqlStatementCounter.reset();
+        loaded.getItems().size();
+        List<String> statements = SqlStatementCounter.statements();
+
+        assertThat(statements, not(empty()));
+        for (String sql : statements) {
+            assertThat(sql, explain(sql), not(containsString("tableScan")));
+        }
+    }
+
+    @Test
+    void testCursorQuerySeeksIndexFromCursor() {
+        SqlStatementCounter.reset();
+        bookingRepository.findByBookerIdAfterCursor(user.getId(), LocalDateTime.now(), 5L, PAGE);
+        String plan = explain(SqlStatementCounter.statements().get(0)).replaceAll("\\s+", " ");
+
+        // Граница курсора входит в условие поиска по индексу, а не только в фильтр
+        assertThat(plan, containsString("IDX_BOOKINGS_BOOKER_START: BOOKER_ID = ?1 AND START_DATE <= ?2 */"));
+    }
+
+    @Test
+    void testMigrationCreatesIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class);
+
+        assertThat(indexes, hasItems(
+                "idx_bookings_booker_start",
+                "idx_bookings_booker_status_start",
+                "idx_bookings_booker_item_end",
+                "idx_bookings_item_start",
+                "idx_bookings_item_end",
+                "idx_items_owner",
+                "idx_items_request",
+                "idx_comments_item",
+                "idx_requests_requestor_created",
+                "idx_requests_created"));
+    }
+
+    private static Stream<Class<?>> projectInterfaces(Class<?> repository) {
+        return Arrays.stream(repository.getInterfaces())
+                .filter(type -> type.getPackageName().startsWith("ru.practicum.shareit"));
+    }
+
+    // Значения подбираются по типу параметра: план от них не зависит, важно только, чтобы запрос выполнился
+    private Object[] arguments(String name, Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(type -> {
+                    if (type == Long.class) {
+                        return user.getId();
+                    } else if (type == LocalDateTime.class) {
+                        return LocalDateTime.now();
+                    } else if (type == BookingStatus.class) {
+                        return BookingStatus.WAITING;
+                    } else if (type == Pageable.class) {
+                        return PAGEABLES.getOrDefault(name, PAGE);
+                    } else if (type == Collection.class) {
+                        return List.of(item.getId());
+                    } else if (type == String.class) {
+                        return "дрель";
+                    }
+                    throw new IllegalArgumentException(String.format("Нет значения для %s в %s", type, name));
+                })
+                .toArray();
+    }
+
+    // План запроса Hibernate: параметры не влияют на выбор индекса, поэтому все они null
+    private String explain(String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql,
+                ps -> {
+                    int count = ps.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= count; i++) {
+                        ps.setObject(i, null);
+                    }
+                },
+                rs -> rs.next() ? rs.getString(1) : null);
+    }
+}
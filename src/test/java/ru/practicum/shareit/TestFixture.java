@@ -0,0 +1,96 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.requests.ItemRequest;
+import ru.practicum.shareit.requests.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Данные для интеграционных тестов. Сущности сохраняются через репозитории: в тесте с @Transactional
+// они попадают в его транзакцию и откатываются, в тесте без неё сразу коммитятся
+@Component
+@RequiredArgsConstructor
+public class TestFixture {
+    @Autowired
+    private final EntityManager em;
+    @Autowired
+    private final UserRepository userRepository;
+    @Autowired
+    private final ItemRepository itemRepository;
+    @Autowired
+    private final ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private final CommentRepository commentRepository;
+    @Autowired
+    private final BookingRepository bookingRepository;
+
+    public User user() {
+        User user = new User();
+        user.setName("Пётр");
+        user.setEmail(UUID.randomUUID() + "@email.com");
+        return userRepository.save(user);
+    }
+
+    public ItemRequest request(User requestor) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription("Нужна дрель");
+        request.setRequestor(requestor);
+        return itemRequestRepository.save(request);
+    }
+
+    public Item item(User owner) {
+        return item(owner, null);
+    }
+
+    public Item item(User owner, ItemRequest request) {
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Простая дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setRequest(request);
+        return itemRepository.save(item);
+    }
+
+    public Comment comment(Item item, User author) {
+        Comment comment = new Comment();
+        comment.setText("Комментарий");
+        comment.setItem(item);
+        comment.setAuthor(author);
+        return commentRepository.save(comment);
+    }
+
+    public Booking booking(Item item, User booker, BookingStatus status, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return bookingRepository.save(booking);
+    }
+
+    // Число SQL запросов action при пустом persistence context, отложенные UPDATE и DELETE тоже считаются.
+    // Нужны транзакция теста и SqlStatementCounter.PROPERTY
+    public int countStatements(Runnable action) {
+        em.flush();
+        em.clear();
+        SqlStatementCounter.reset();
+        action.run();
+        em.flush();
+        return SqlStatementCounter.count();
+    }
+}
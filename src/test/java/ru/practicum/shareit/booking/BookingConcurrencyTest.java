@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixture;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+// Без @Transactional: параллельные запросы должны видеть закоммиченные данные.
+// Отдельная база, чтобы эти строки не попали в остальные тесты
+@SpringBootTest(
+        properties = "spring.datasource.url=jdbc:h2:mem:concurrency",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS = 2_000;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final BookingTestRepository bookingTestRepository;
+    private final TestFixture fixture;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.user();
+        booker = fixture.user();
+        item = fixture.item(owner);
+    }
+
+    @Test
+    void testConcurrentApprovalsProcessBookingOnce() throws Exception {
+        Booking booking = saveWaitingBooking();
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                barrier.await();
+                return bookingService.setApproved(owner.getId(), booking.getId(), approved);
+            }));
+        }
+        executor.shutdown();
+
+        BookingDto winner = null;
+        int succeeded = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                winner = result.get();
+                succeeded++;
+            } catch (ExecutionException e) {
+                // проигравшие либо не успели прочитать WAITING, либо проиграли гонку на UPDATE
+                assertThat(e.getCause(), anyOf(instanceOf(ConflictException.class),
+                        instanceOf(BadRequestException.class)));
+            }
+        }
+
+        assertThat(succeeded, equalTo(1));
+        Booking saved = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(saved.getStatus(), equalTo(winner.getStatus()));
+        assertThat(saved.getVersion(), equalTo(1L));
+    }
+
+    @Test
+    void testConcurrentCreatesForSameSlotBookItemOnce() throws Exception {
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(fixture.user());
+        }
+        BookingPostDto slot = new BookingPostDto(
+                item.getId(), LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            User user = bookers.get(i % THREADS);
+            results.add(executor.submit(() -> bookingService.create(user.getId(), slot)));
+        }
+        executor.shutdown();
+
+        int succeeded = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                result.get();
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(ConflictException.class));
+            }
+        }
+
+        assertThat(succeeded, equalTo(1));
+        assertThat(bookingTestRepository.existsOverlapping(item.getId(), slot.getStart(), slot.getEnd()), equalTo(true));
+    }
+
+    @Test
+    void testUpdateWithStaleVersionChangesNothing() {
+        Booking booking = saveWaitingBooking();
+
+        assertThat(bookingRepository.updateStatusIfWaiting(booking.getId(), 0L, BookingStatus.APPROVED), equalTo(1));
+        assertThat(bookingRepository.updateStatusIfWaiting(booking.getId(), 0L, BookingStatus.REJECTED), equalTo(0));
+
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus(),
+                equalTo(BookingStatus.APPROVED));
+    }
+
+    private Booking saveWaitingBooking() {
+        return fixture.booking(item, booker, BookingStatus.WAITING,
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+    }
+}
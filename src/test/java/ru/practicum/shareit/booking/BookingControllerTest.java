@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingBatchResultDto;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.BookingDto;
 import ru.practicum.shareit.booking.BookingService;
@@ -21,8 +22,11 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -63,7 +67,7 @@ public class BookingControllerTest {
 
     @Test
     void testFindAll() throws Exception {
-        when(bookingService.findAll(any(), any(), any(), any()))
+        when(bookingService.findAll(any(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1))
@@ -78,9 +82,45 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].item.name", is(itemDto.getName())));
     }
 
+    @Test
+    void testFindAllReturnsNextCursorWhenPageIsFull() throws Exception {
+        when(bookingService.findAll(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings?from=0&size=1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingDto).encode()));
+    }
+
+    @Test
+    void testFindAllByOwnerWithCursor() throws Exception {
+        BookingCursor cursor = BookingCursor.of(bookingDto);
+        when(bookingService.findAllByOwner(any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        mvc.perform(get("/bookings/owner?cursor=" + cursor.encode()).header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService).findAllByOwner(
+                any(),
+                any(),
+                any(),
+                any(),
+                argThat(c -> c.getId().equals(cursor.getId()) && c.getStart().equals(cursor.getStart()))
+        );
+    }
+
+    @Test
+    void testFindAllWithBrokenCursor() throws Exception {
+        mvc.perform(get("/bookings?cursor=bm90LWEtY3Vyc29y").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testFindAllByOwner() throws Exception {
-        when(bookingService.findAllByOwner(any(), any(), any(), any()))
+        when(bookingService.findAllByOwner(any(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", 1))
@@ -132,6 +172,51 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.item.name", is(itemDto.getName())));
     }
 
+    @Test
+    void testCreateAll() throws Exception {
+        when(bookingService.createAll(any(), any()))
+                .thenReturn(List.of(
+                        new BookingBatchResultDto(201, bookingDto, null),
+                        new BookingBatchResultDto(409, null, "Вещь 1 уже забронирована на эти даты")
+                ));
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].status", is(409)))
+                .andExpect(jsonPath("$[1].error", is("Вещь 1 уже забронирована на эти даты")));
+    }
+
+    @Test
+    void testUpdateAll() throws Exception {
+        when(bookingService.setApprovedAll(any(), any(), any()))
+                .thenReturn(List.of(
+                        new BookingBatchResultDto(200, bookingDto, null),
+                        new BookingBatchResultDto(400, null, "Вещь 2 уже проверена")
+                ));
+
+        mvc.perform(patch("/bookings/batch?approved=true")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].status", is(400)))
+                .andExpect(jsonPath("$[1].error", is("Вещь 2 уже проверена")));
+        verify(bookingService).setApprovedAll(any(), argThat(ids -> ids.equals(List.of(1L, 2L))), argThat(a -> a));
+    }
+
     @Test
     void testUpdate() throws Exception {
         when(bookingService.setApproved(any(), any(), any()))
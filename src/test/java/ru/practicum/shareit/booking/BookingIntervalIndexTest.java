@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixture;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+// Без @Transactional: индекс кэширует только закоммиченные данные.
+// Отдельная база, чтобы эти строки не попали в остальные тесты
+@SpringBootTest(
+        properties = "spring.datasource.url=jdbc:h2:mem:interval",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingIntervalIndexTest {
+    private static final int ITEMS = 3;
+    private static final int OPERATIONS = 300;
+    private static final int HOURS = 24 * 30;
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingService bookingService;
+    private final BookingTestRepository bookingTestRepository;
+    private final ItemRepository itemRepository;
+    private final TestFixture fixture;
+
+    private final Random random = new Random(7);
+    private final List<Long> itemIds = new ArrayList<>();
+    private User owner;
+    private User booker;
+    // секунды: H2 хранит время с меньшей точностью, чем LocalDateTime
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        owner = fixture.user();
+        booker = fixture.user();
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds.add(fixture.item(owner).getId());
+        }
+        base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+    }
+
+    // Случайные создания, подтверждения и отказы через сервис, после каждого ответы индекса сравниваются с базой.
+    // Изменения идут в транзакциях сервиса и попадают в уже загруженный индекс после commit
+    @Test
+    void testIndexMatchesDatabaseAfterEveryChange() {
+        List<Long> waiting = new ArrayList<>();
+        int created = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (!waiting.isEmpty() && random.nextInt(3) == 0) {
+                Long bookingId = waiting.remove(random.nextInt(waiting.size()));
+                boolean approved = random.nextBoolean();
+                bookingService.setApproved(owner.getId(), bookingId, approved);
+            } else {
+                try {
+                    LocalDateTime start = randomTime();
+                    BookingPostDto bookingPostDto = new BookingPostDto(
+                            randomItemId(), start, start.plusHours(1 + random.nextInt(72)));
+                    BookingDto booking = bookingService.create(booker.getId(), bookingPostDto);
+                    waiting.add(booking.getId());
+                    created++;
+                } catch (ConflictException e) {
+                    // слот занят, проверяется ниже вместе с остальными ответами
+                }
+            }
+            assertIndexMatchesDatabase();
+        }
+
+        assertThat(created, greaterThan(OPERATIONS / 10));
+    }
+
+    @Test
+    void testIndexKeepsLoadedItemsUntilCleared() {
+        Long itemId = itemIds.get(0);
+        LocalDateTime start = base.plusDays(1);
+        assertThat(bookingIntervalIndex.isFree(itemId, start, start.plusDays(1)), equalTo(true));
+
+        // запись в обход сервиса индекс не видит
+        fixture.booking(itemRepository.findById(itemId).orElseThrow(), booker, BookingStatus.WAITING,
+                start, start.plusDays(1));
+        assertThat(bookingIntervalIndex.isFree(itemId, start, start.plusDays(1)), equalTo(true));
+
+        bookingIntervalIndex.clear();
+        assertThat(bookingIntervalIndex.isFree(itemId, start, start.plusDays(1)), equalTo(false));
+    }
+
+    // Загрузка после commit, но до afterCommit уже содержит бронирование, и add применяется к нему второй раз
+    @Test
+    void testAddingLoadedBookingDoesNotDuplicateIt() {
+        Long itemId = itemIds.get(1);
+        LocalDateTime start = base.plusDays(1);
+        Booking booking = fixture.booking(itemRepository.findById(itemId).orElseThrow(), booker,
+                BookingStatus.WAITING, start, start.plusDays(1));
+        assertThat(bookingIntervalIndex.isFree(itemId, start, start.plusDays(1)), equalTo(false));
+
+        bookingIntervalIndex.add(booking);
+        bookingIntervalIndex.updateStatus(itemId, booking.getId(), BookingStatus.REJECTED);
+
+        assertThat(bookingIntervalIndex.isFree(itemId, start, start.plusDays(1)), equalTo(true));
+        assertThat(bookingIntervalIndex.findNext(List.of(itemId), base).get(itemId).getStatus(),
+                equalTo(BookingStatus.REJECTED));
+    }
+
+    private void assertIndexMatchesDatabase() {
+        LocalDateTime now = randomTime();
+        assertThat(bookingIntervalIndex.findLast(itemIds, now),
+                equalTo(firstByItemId(bookingTestRepository.findLastByItemIds(itemIds, now))));
+        assertThat(bookingIntervalIndex.findNext(itemIds, now),
+                equalTo(firstByItemId(bookingTestRepository.findNextByItemIds(itemIds, now))));
+        Long itemId = randomItemId();
+        LocalDateTime start = randomTime();
+        LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+        assertThat(bookingIntervalIndex.isFree(itemId, start, end),
+                equalTo(!bookingTestRepository.existsOverlapping(itemId, start, end)));
+    }
+
+    // При совпадении start берётся бронирование с меньшим id
+    private static Map<Long, BookingItemDto> firstByItemId(List<Booking> bookings) {
+        Map<Long, BookingItemDto> result = new HashMap<>();
+        for (Booking booking : bookings) {
+            result.merge(booking.getItem().getId(), BookingMapper.bookingItemDto(booking),
+                    (current, candidate) -> current.getId() <= candidate.getId() ? current : candidate);
+        }
+        return result;
+    }
+
+    private LocalDateTime randomTime() {
+        return base.plusHours(random.nextInt(HOURS));
+    }
+
+    private Long randomItemId() {
+        return itemIds.get(random.nextInt(itemIds.size()));
+    }
+}
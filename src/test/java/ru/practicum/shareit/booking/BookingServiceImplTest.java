@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.CommentRepository;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
@@ -12,12 +16,18 @@ import ru.practicum.shareit.user.UserRepository;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 
 public class BookingServiceImplTest {
     BookingService bookingService;
@@ -25,10 +35,13 @@ public class BookingServiceImplTest {
     UserRepository userRepository;
     ItemRepository itemRepository;
     BookingRepository bookingRepository;
+    CommentRepository commentRepository;
+    BookingIntervalIndex bookingIntervalIndex;
 
     private final Item item = new Item();
     private final User user = new User();
     private final Booking booking = new Booking();
+    private final BookingView bookingView;
 
     public BookingServiceImplTest() {
         user.setId(1L);
@@ -47,46 +60,83 @@ public class BookingServiceImplTest {
         booking.setStatus(BookingStatus.APPROVED);
         booking.setStart(LocalDateTime.now());
         booking.setEnd(LocalDateTime.now());
+        booking.setVersion(0L);
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", booking.getId());
+        row.put("start", booking.getStart());
+        row.put("end", booking.getEnd());
+        row.put("status", booking.getStatus());
+        row.put("itemId", item.getId());
+        row.put("itemName", item.getName());
+        row.put("itemDescription", item.getDescription());
+        row.put("itemAvailable", item.getAvailable());
+        row.put("bookerId", user.getId());
+        row.put("bookerName", user.getName());
+        row.put("bookerEmail", user.getEmail());
+        bookingView = new SpelAwareProxyProjectionFactory().createProjection(BookingView.class, row);
 
         userRepository = Mockito.mock(UserRepository.class);
         bookingRepository = Mockito.mock(BookingRepository.class);
         itemRepository = Mockito.mock(ItemRepository.class);
+        commentRepository = Mockito.mock(CommentRepository.class);
+        bookingIntervalIndex = Mockito.mock(BookingIntervalIndex.class);
+        Mockito.when(bookingIntervalIndex.isFree(any(), any(), any())).thenReturn(true);
 
         bookingService = new BookingServiceImpl(
                 bookingRepository,
                 userRepository,
-                itemRepository
+                itemRepository,
+                commentRepository,
+                bookingIntervalIndex
         );
     }
 
     @Test
     void testFindAllWhereBookingParamStateIsAll() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        Mockito.when(bookingRepository.findByBookerIdOrderByStartDesc(any(), any())).thenReturn(List.of(booking));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findByBookerIdOrderByStartDesc(any(), any())).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
                 1L,
                 BookingParamState.ALL,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
         assertThat(bookingDtoCollection.size()).isEqualTo(1);
     }
 
+    @Test
+    void testFindAllMapsViewWithoutEntities() {
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findByBookerIdOrderByStartDesc(any(), any())).thenReturn(List.of(bookingView));
+
+        BookingDto bookingDto = bookingService.findAll(1L, BookingParamState.ALL, 0, 20, null).iterator().next();
+
+        assertThat(bookingDto.getId()).isEqualTo(booking.getId());
+        assertThat(bookingDto.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingDto.getItem().getName()).isEqualTo(item.getName());
+        assertThat(bookingDto.getItem().getRequestId()).isNull();
+        assertThat(bookingDto.getItem().getComments()).isEqualTo(List.of());
+        assertThat(bookingDto.getBooker().getEmail()).isEqualTo(user.getEmail());
+    }
+
     @Test
     void testFindAllWhereBookingParamStateIsCurrent() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
                 1L,
                 BookingParamState.CURRENT,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -95,16 +145,17 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllWhereBookingParamStateIsPast() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
                 1L,
                 BookingParamState.PAST,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -113,16 +164,17 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllWhereBookingParamStateIsFuture() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findByBookerIdAndStartIsAfterOrderByStartDesc(any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
                 1L,
                 BookingParamState.FUTURE,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -131,16 +183,17 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllWhereBookingParamStateIsWaiting() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findByBookerIdAndStatusOrderByStartDesc(any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findByBookerIdAndStatusOrderByStartDesc(any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
                 1L,
                 BookingParamState.WAITING,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -149,102 +202,158 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllWhereBookingParamStateIsRejected() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findByBookerIdAndStatusOrderByStartDesc(any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findByBookerIdAndStatusOrderByStartDesc(any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
         assertThat(bookingDtoCollection.size()).isEqualTo(1);
     }
 
+    @Test
+    void testFindAllWhereBookingParamStateIsPastUsesPage() {
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+
+        bookingService.findAll(1L, BookingParamState.PAST, 10, 5, null);
+
+        Mockito.verify(bookingRepository).findByBookerIdAndEndIsBeforeOrderByStartDesc(
+                eq(1L), any(), eq(PageRequest.of(2, 5)));
+    }
+
+    @Test
+    void testFindAllWithCursorUsesSeekQuery() {
+        BookingCursor cursor = new BookingCursor(booking.getStart(), booking.getId());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(
+                bookingRepository.findPastByBookerIdAfterCursor(any(), any(), any(), any(), any())
+        ).thenReturn(List.of(bookingView));
+
+        Collection<BookingDto> bookingDtoCollection = bookingService.findAll(
+                1L, BookingParamState.PAST, 0, 5, cursor);
+
+        assertThat(bookingDtoCollection.size()).isEqualTo(1);
+        Mockito.verify(bookingRepository).findPastByBookerIdAfterCursor(
+                eq(1L), eq(cursor.getStart()), eq(cursor.getId()), any(), eq(PageRequest.of(0, 5)));
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
+    }
+
+    @Test
+    void testFindAllWithCursorAndFrom() {
+        BookingCursor cursor = new BookingCursor(booking.getStart(), booking.getId());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.findAll(1L, BookingParamState.PAST, 100, 5, cursor))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> bookingService.findAllByOwner(1L, BookingParamState.PAST, 100, 5, cursor))
+                .isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     void testFindAllWhereUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
 
         assertThatThrownBy(() -> bookingService.findAll(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                20
+                20,
+                null
         ))
                 .isInstanceOf(NotFoundException.class);
     }
 
     @Test
     void testFindAllWhereFromLessZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> bookingService.findAll(
                 1L,
                 BookingParamState.REJECTED,
                 -1,
-                20
+                20,
+                null
         ))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindAllWhereSizeIsZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> bookingService.findAll(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                0
+                0,
+                null
         ))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindAllWhereSizeLessZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> bookingService.findAll(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                -1
+                -1,
+                null
         ))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindAllByOwnerWhereBookingParamStateIsAll() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        Mockito.when(bookingRepository.findAllByOwner(any(), any())).thenReturn(List.of(booking));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findAllByOwner(any(), any())).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
                 1L,
                 BookingParamState.ALL,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
         assertThat(bookingDtoCollection.size()).isEqualTo(1);
     }
 
+    @Test
+    void testFindAllByOwnerLoadsCommentsInOneQuery() {
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findAllByOwner(any(), any())).thenReturn(List.of(bookingView, bookingView));
+
+        bookingService.findAllByOwner(1L, BookingParamState.ALL, 0, 20, null);
+
+        Mockito.verify(commentRepository).findAllByItemIdIn(Set.of(item.getId()));
+    }
+
     @Test
     void testFindAllByOwnerWhereBookingParamStateIsCurrent() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findAllByOwnerInCurrent(any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findAllByOwnerInCurrent(any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
                 1L,
                 BookingParamState.CURRENT,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -253,16 +362,17 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllByOwnerWhereBookingParamStateIsPast() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findAllByOwnerInPast(any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findAllByOwnerInPast(any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
                 1L,
                 BookingParamState.PAST,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -271,16 +381,17 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllByOwnerWhereBookingParamStateIsFuture() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findAllByOwnerInFuture(any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findAllByOwnerInFuture(any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
                 1L,
                 BookingParamState.FUTURE,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -289,16 +400,17 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllByOwnerWhereBookingParamStateIsWaiting() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findAllByOwnerByStatus(any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findAllByOwnerByStatus(any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
                 1L,
                 BookingParamState.WAITING,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
@@ -307,77 +419,108 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindAllByOwnerWhereBookingParamStateIsRejected() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(
-                bookingRepository.findAllByOwnerByStatus(any(), any())
-        ).thenReturn(List.of(booking));
+                bookingRepository.findAllByOwnerByStatus(any(), any(), any())
+        ).thenReturn(List.of(bookingView));
 
         Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                20
+                20,
+                null
         );
 
         assertThat(bookingDtoCollection).isNotNull();
         assertThat(bookingDtoCollection.size()).isEqualTo(1);
     }
 
+    @Test
+    void testFindAllByOwnerWhereBookingParamStateIsPastUsesPage() {
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+
+        bookingService.findAllByOwner(1L, BookingParamState.PAST, 10, 5, null);
+
+        Mockito.verify(bookingRepository).findAllByOwnerInPast(eq(1L), eq(PageRequest.of(2, 5)));
+    }
+
+    @Test
+    void testFindAllByOwnerWithCursorUsesSeekQuery() {
+        BookingCursor cursor = new BookingCursor(booking.getStart(), booking.getId());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(
+                bookingRepository.findAllByOwnerByStatusAfterCursor(any(), any(), any(), any(), any())
+        ).thenReturn(List.of(bookingView));
+
+        Collection<BookingDto> bookingDtoCollection = bookingService.findAllByOwner(
+                1L, BookingParamState.WAITING, 0, 5, cursor);
+
+        assertThat(bookingDtoCollection.size()).isEqualTo(1);
+        Mockito.verify(bookingRepository).findAllByOwnerByStatusAfterCursor(
+                eq(1L), eq(cursor.getStart()), eq(cursor.getId()), eq(BookingStatus.WAITING),
+                eq(PageRequest.of(0, 5)));
+    }
+
     @Test
     void testFindAllByOwnerWhereUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
 
         assertThatThrownBy(() -> bookingService.findAllByOwner(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                20
+                20,
+                null
         ))
                 .isInstanceOf(NotFoundException.class);
     }
 
     @Test
     void testFindAllByOwnerWhereFromLessZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> bookingService.findAllByOwner(
                 1L,
                 BookingParamState.REJECTED,
                 -1,
-                20
+                20,
+                null
         ))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindAllByOwnerWhereSizeIsZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> bookingService.findAllByOwner(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                0
+                0,
+                null
         ))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindAllByOwnerWhereSizeLessZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> bookingService.findAllByOwner(
                 1L,
                 BookingParamState.REJECTED,
                 0,
-                -1
+                -1,
+                null
         ))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindOne() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
 
         BookingDto bookingDto = bookingService.findOne(1L, 1L);
@@ -392,7 +535,7 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindOneWhereUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
         Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
 
         assertThatThrownBy(() -> bookingService.findOne(1L, 1L))
@@ -401,7 +544,7 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindOneWhereBookingNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.findOne(1L, 1L))
@@ -410,7 +553,7 @@ public class BookingServiceImplTest {
 
     @Test
     void testFindOneWhereIsNotOwner() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
 
         assertThatThrownBy(() -> bookingService.findOne(2L, 1L))
@@ -437,28 +580,145 @@ public class BookingServiceImplTest {
         assertThat(bookingDto.getEnd()).isEqualTo(booking.getEnd());
         assertThat(bookingDto.getStatus()).isEqualTo(booking.getStatus());
         assertThat(bookingDto.getItem()).isNotNull();
+        Mockito.verify(bookingIntervalIndex).add(booking);
     }
 
     @Test
-    void testSetApproved() {
-        booking.setStatus(BookingStatus.WAITING);
-
+    void testCreateWhenIntervalOverlaps() {
         Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
-        Mockito.when(bookingRepository.save(any())).thenReturn(booking);
+        Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+        Mockito.when(bookingIntervalIndex.isFree(eq(1L), any(), any())).thenReturn(false);
 
         BookingPostDto bookingPostDto = new BookingPostDto(
                 1L,
                 LocalDateTime.now().plus(10L, ChronoUnit.HOURS),
                 LocalDateTime.now().plus(100L, ChronoUnit.HOURS)
         );
+
+        assertThatThrownBy(() -> bookingService.create(2L, bookingPostDto))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Вещь 1 уже забронирована на эти даты");
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testCreateAll() {
+        User booker = new User();
+        booker.setId(2L);
+        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllByIdIn(any())).thenReturn(List.of(item));
+        Mockito.when(bookingIntervalIndex.areFree(any())).thenReturn(new boolean[]{true, true, false});
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingPostDto> bookingPostDtos = List.of(
+                new BookingPostDto(1L, start, start.plusDays(1)),
+                new BookingPostDto(1L, start.plusHours(1), start.plusDays(2)),
+                new BookingPostDto(1L, start.plusDays(5), start.plusDays(6))
+        );
+
+        List<BookingBatchResultDto> results = bookingService.createAll(2L, bookingPostDtos);
+
+        assertThat(results.size()).isEqualTo(3);
+        assertThat(results.get(0).getStatus()).isEqualTo(201);
+        assertThat(results.get(0).getBooking().getStart()).isEqualTo(start);
+        assertThat(results.get(1).getStatus()).isEqualTo(409);
+        assertThat(results.get(1).getError()).isEqualTo("Вещь 1 уже забронирована на эти даты");
+        assertThat(results.get(2).getStatus()).isEqualTo(409);
+        Mockito.verify(bookingRepository).insertAll(argThat(bookings -> bookings.size() == 1));
+        Mockito.verify(itemRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void testCreateAllWhenOwnerBooksOwnItem() {
+        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(itemRepository.findAllByIdIn(any())).thenReturn(List.of(item));
+        Mockito.when(bookingIntervalIndex.areFree(any())).thenReturn(new boolean[]{true});
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<BookingBatchResultDto> results = bookingService.createAll(
+                1L, List.of(new BookingPostDto(1L, start, start.plusDays(1))));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(404);
+        assertThat(results.get(0).getBooking()).isNull();
+        Mockito.verify(bookingRepository).insertAll(List.of());
+    }
+
+    @Test
+    void testCreateAllWhenBatchTooLarge() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingPostDto> bookingPostDtos = Collections.nCopies(
+                BookingService.MAX_BATCH_SIZE + 1, new BookingPostDto(1L, start, start.plusDays(1)));
+
+        assertThatThrownBy(() -> bookingService.createAll(2L, bookingPostDtos))
+                .isInstanceOf(BadRequestException.class);
+        Mockito.verify(userRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void testSetApprovedAll() {
+        booking.setStatus(BookingStatus.WAITING);
+        Booking approved = new Booking();
+        approved.setId(2L);
+        approved.setItem(item);
+        approved.setBooker(user);
+        approved.setStatus(BookingStatus.APPROVED);
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findAllByIdInAndOwner(any(), eq(1L))).thenReturn(List.of(booking, approved));
+        Mockito.when(bookingRepository.updateAllStatusIfWaiting(Set.of(1L), BookingStatus.REJECTED)).thenReturn(1);
+
+        List<BookingBatchResultDto> results = bookingService.setApprovedAll(1L, List.of(1L, 2L, 3L), false);
+
+        assertThat(results.size()).isEqualTo(3);
+        assertThat(results.get(0).getStatus()).isEqualTo(200);
+        assertThat(results.get(0).getBooking().getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(results.get(1).getStatus()).isEqualTo(400);
+        assertThat(results.get(2).getStatus()).isEqualTo(404);
+        Mockito.verify(bookingIntervalIndex).updateStatus(1L, 1L, BookingStatus.REJECTED);
+        Mockito.verify(bookingRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void testSetApprovedAllWhenBookingChangedConcurrently() {
+        booking.setStatus(BookingStatus.WAITING);
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findAllByIdInAndOwner(any(), eq(1L))).thenReturn(List.of(booking));
+        Mockito.when(bookingRepository.updateAllStatusIfWaiting(any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> bookingService.setApprovedAll(1L, List.of(1L), true))
+                .isInstanceOf(ConflictException.class);
+        Mockito.verify(bookingIntervalIndex, Mockito.never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void testSetApproved() {
+        booking.setStatus(BookingStatus.WAITING);
+
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.updateStatusIfWaiting(1L, 0L, BookingStatus.APPROVED)).thenReturn(1);
+
         BookingDto bookingDto = bookingService.setApproved(1L, 1L, true);
 
         assertThat(bookingDto).isNotNull();
         assertThat(bookingDto.getId()).isEqualTo(booking.getId());
         assertThat(bookingDto.getStart()).isEqualTo(booking.getStart());
         assertThat(bookingDto.getEnd()).isEqualTo(booking.getEnd());
-        assertThat(bookingDto.getStatus()).isEqualTo(booking.getStatus());
+        assertThat(bookingDto.getStatus()).isEqualTo(BookingStatus.APPROVED);
         assertThat(bookingDto.getItem()).isNotNull();
+        Mockito.verify(bookingIntervalIndex).updateStatus(1L, 1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void testSetApprovedWhenBookingChangedConcurrently() {
+        booking.setStatus(BookingStatus.WAITING);
+
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(bookingRepository.findById(any())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.updateStatusIfWaiting(1L, 0L, BookingStatus.REJECTED)).thenReturn(0);
+
+        assertThatThrownBy(() -> bookingService.setApproved(1L, 1L, false))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Бронирование 1 уже изменено другим запросом");
+        Mockito.verify(bookingRepository, Mockito.never()).save(any());
+        Mockito.verify(bookingIntervalIndex, Mockito.never()).updateStatus(any(), any(), any());
     }
 }
@@ -0,0 +1,233 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.SqlStatementCounter;
+import ru.practicum.shareit.TestFixture;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+@Transactional
+@SpringBootTest(
+        properties = {
+                "db.name=test",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                SqlStatementCounter.PROPERTY
+        },
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingServiceTest {
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final BookingService bookingService;
+    private final BookingTestRepository bookingTestRepository;
+    private final TestFixture fixture;
+
+    @Test
+    void testFindAllByOwnerStatementCountDoesNotDependOnBookingCount() {
+        User owner = fixture.user();
+        User booker = fixture.user();
+        persistBookings(owner, booker, 2);
+        long statementsForTwo = fixture.countStatements(
+                () -> bookingService.findAllByOwner(owner.getId(), BookingParamState.ALL, 0, 20, null));
+        persistBookings(owner, booker, 6);
+        long statementsForEight = fixture.countStatements(
+                () -> bookingService.findAllByOwner(owner.getId(), BookingParamState.ALL, 0, 20, null));
+
+        assertThat(bookingService.findAllByOwner(owner.getId(), BookingParamState.ALL, 0, 20, null), hasSize(8));
+        assertThat(statementsForEight, equalTo(statementsForTwo));
+    }
+
+    @Test
+    void testFindAllChecksUserWithoutLoadingIt() {
+        User booker = fixture.user();
+        em.flush();
+        em.clear();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(bookingService.findAll(booker.getId(), BookingParamState.ALL, 0, 20, null), hasSize(0));
+        assertThat(statistics.getEntityLoadCount(), equalTo(0L));
+    }
+
+    @Test
+    void testFindAllByOwnerReadsViewsWithoutEntities() {
+        User owner = fixture.user();
+        User booker = fixture.user();
+        persistBookings(owner, booker, 3);
+        em.flush();
+        em.clear();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDto> bookings = new ArrayList<>(
+                bookingService.findAllByOwner(owner.getId(), BookingParamState.ALL, 0, 20, null));
+
+        assertThat(statistics.getEntityLoadCount(), equalTo(0L));
+        assertThat(bookings, hasSize(3));
+        for (BookingDto booking : bookings) {
+            assertThat(booking, equalTo(bookingService.findOne(owner.getId(), booking.getId())));
+        }
+    }
+
+    @Test
+    void testFindAllStatementCountDoesNotDependOnBookingCount() {
+        User owner = fixture.user();
+        User booker = fixture.user();
+        persistBookings(owner, booker, 2);
+        long statementsForTwo = fixture.countStatements(
+                () -> bookingService.findAll(booker.getId(), BookingParamState.PAST, 0, 20, null));
+        persistBookings(owner, booker, 6);
+        long statementsForEight = fixture.countStatements(
+                () -> bookingService.findAll(booker.getId(), BookingParamState.PAST, 0, 20, null));
+
+        assertThat(bookingService.findAll(booker.getId(), BookingParamState.PAST, 0, 20, null), hasSize(8));
+        assertThat(statementsForEight, equalTo(statementsForTwo));
+    }
+
+    @Test
+    void testExistsOverlapping() {
+        User owner = fixture.user();
+        User booker = fixture.user();
+        persistBookings(owner, booker, 1);
+        Booking booking = em.createQuery("select b from Booking b where b.booker = :booker", Booking.class)
+                .setParameter("booker", booker)
+                .getSingleResult();
+        Long itemId = booking.getItem().getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = start.plusDays(1);
+        booking.setStart(start);
+        booking.setEnd(end);
+        em.flush();
+
+        assertThat(bookingTestRepository.existsOverlapping(itemId, start.minusHours(1), start.plusHours(1)), equalTo(true));
+        assertThat(bookingTestRepository.existsOverlapping(itemId, start.plusHours(1), end.minusHours(1)), equalTo(true));
+        assertThat(bookingTestRepository.existsOverlapping(itemId, end, end.plusDays(1)), equalTo(false));
+        assertThat(bookingTestRepository.existsOverlapping(itemId, start.minusDays(1), start), equalTo(false));
+        booking.setStatus(BookingStatus.REJECTED);
+        em.flush();
+        assertThat(bookingTestRepository.existsOverlapping(itemId, start, end), equalTo(false));
+    }
+
+    @Test
+    void testCreateAll() {
+        User owner = fixture.user();
+        User booker = fixture.user();
+        persistBookings(owner, booker, 1);
+        Long itemId = em.createQuery("select b.item.id from Booking b where b.booker = :booker", Long.class)
+                .setParameter("booker", booker)
+                .getSingleResult();
+        LocalDateTime saturday = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingPostDto> bookings = new ArrayList<>();
+        for (int week = 0; week < 4; week++) {
+            bookings.add(new BookingPostDto(itemId, saturday.plusWeeks(week), saturday.plusWeeks(week).plusDays(2)));
+        }
+        bookings.add(new BookingPostDto(itemId, saturday.plusDays(1), saturday.plusDays(3)));
+        bookings.add(new BookingPostDto(itemId, saturday.minusDays(3), saturday.minusDays(2)));
+        bookings.add(new BookingPostDto(-1L, saturday, saturday.plusDays(2)));
+        bookings.add(new BookingPostDto(itemId, saturday.plusWeeks(5), saturday.plusWeeks(5).plusDays(2)));
+
+        List<BookingBatchResultDto> results = bookingService.createAll(booker.getId(), bookings);
+
+        assertThat(results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()),
+                contains(201, 201, 201, 201, 409, 400, 404, 201));
+        assertThat(results.get(4).getError(), equalTo(String.format("Вещь %d уже забронирована на эти даты", itemId)));
+        assertThat(results.get(7).getBooking().getItem().getId(), equalTo(itemId));
+        assertThat(results.get(7).getBooking().getStatus(), equalTo(BookingStatus.WAITING));
+        em.clear();
+        for (int i : List.of(0, 1, 2, 3, 7)) {
+            Booking saved = em.find(Booking.class, results.get(i).getBooking().getId());
+            assertThat(saved.getStart(), equalTo(bookings.get(i).getStart()));
+            assertThat(saved.getBooker().getId(), equalTo(booker.getId()));
+            assertThat(saved.getVersion(), equalTo(0L));
+        }
+    }
+
+    // Одинаковое начало у всех бронирований: порядок задаёт только id, в обоих режимах один и тот же
+    @Test
+    void testOffsetPagesAndCursorUseSameOrder() {
+        User booker = fixture.user();
+        persistBookings(fixture.user(), booker, 5);
+        em.createQuery("update Booking b set b.start = :start where b.booker = :booker")
+                .setParameter("start", LocalDateTime.now().minusDays(3).truncatedTo(ChronoUnit.SECONDS))
+                .setParameter("booker", booker)
+                .executeUpdate();
+        List<Long> ids = em.createQuery(
+                        "select b.id from Booking b where b.booker = :booker order by b.id desc", Long.class)
+                .setParameter("booker", booker)
+                .getResultList();
+
+        List<Long> byCursor = new ArrayList<>();
+        BookingCursor cursor = null;
+        for (int page = 0; page < 3; page++) {
+            List<BookingDto> bookings = new ArrayList<>(
+                    bookingService.findAll(booker.getId(), BookingParamState.ALL, 0, 2, cursor));
+            List<BookingDto> byOffset = new ArrayList<>(
+                    bookingService.findAll(booker.getId(), BookingParamState.ALL, page * 2, 2, null));
+            assertThat(bookings, equalTo(byOffset));
+            bookings.forEach(booking -> byCursor.add(booking.getId()));
+            cursor = BookingCursor.of(bookings.get(bookings.size() - 1));
+        }
+
+        assertThat(byCursor, equalTo(ids));
+    }
+
+    @Test
+    void testSetApprovedAll() {
+        User owner = fixture.user();
+        User booker = fixture.user();
+        persistBookings(owner, booker, 3);
+        persistBookings(fixture.user(), booker, 1);
+        List<Booking> bookings = em.createQuery(
+                        "select b from Booking b where b.booker = :booker order by b.id", Booking.class)
+                .setParameter("booker", booker)
+                .getResultList();
+        bookings.get(0).setStatus(BookingStatus.WAITING);
+        bookings.get(1).setStatus(BookingStatus.WAITING);
+        em.flush();
+        List<Long> ids = bookings.stream().map(Booking::getId).collect(Collectors.toList());
+        List<Long> versions = bookings.stream().map(Booking::getVersion).collect(Collectors.toList());
+
+        List<BookingBatchResultDto> results = bookingService.setApprovedAll(owner.getId(), ids, true);
+
+        assertThat(results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()),
+                contains(200, 200, 400, 404));
+        assertThat(results.get(0).getBooking().getStatus(), equalTo(BookingStatus.APPROVED));
+        em.clear();
+        for (int i = 0; i < 2; i++) {
+            Booking saved = em.find(Booking.class, ids.get(i));
+            assertThat(saved.getStatus(), equalTo(BookingStatus.APPROVED));
+            assertThat(saved.getVersion(), equalTo(versions.get(i) + 1));
+        }
+        assertThat(em.find(Booking.class, ids.get(2)).getVersion(), equalTo(versions.get(2)));
+    }
+
+    // Каждое бронирование на свою вещь, у вещи свой запрос и комментарий своего автора
+    private void persistBookings(User owner, User booker, int count) {
+        for (int i = 0; i < count; i++) {
+            User author = fixture.user();
+            Item item = fixture.item(owner, fixture.request(author));
+            fixture.comment(item, author);
+            fixture.booking(item, booker, BookingStatus.APPROVED,
+                    LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+        }
+    }
+}
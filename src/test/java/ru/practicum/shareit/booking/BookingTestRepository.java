@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Queries answering what BookingIntervalIndex answers from memory, used by tests to check the index against the database
+public interface BookingTestRepository extends Repository<Booking, Long> {
+    // Find last bookings for a set of items
+    @EntityGraph("Booking.details")
+    @Query(" select b from Booking b " +
+            "where b.item.id in ?1 and b.end < ?2 " +
+            "and b.start = (select max(lb.start) from Booking lb where lb.item.id = b.item.id and lb.end < ?2)")
+    List<Booking> findLastByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    // Find next bookings for a set of items
+    @EntityGraph("Booking.details")
+    @Query(" select b from Booking b " +
+            "where b.item.id in ?1 and b.start > ?2 " +
+            "and b.start = (select min(nb.start) from Booking nb where nb.item.id = b.item.id and nb.start > ?2)")
+    List<Booking> findNextByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    // Check whether a waiting or approved booking of the item intersects [start, end)
+    @Query(" select count(b) > 0 from Booking b " +
+            "where b.item.id = ?1 and b.start < ?3 and b.end > ?2 " +
+            "and b.status in (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.BookingStatus.APPROVED)")
+    boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.SqlStatementCounter;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Без @Transactional: в кэш попадают только закоммиченные изменения.
+// Отдельная база, чтобы эти строки не попали в остальные тесты
+@SpringBootTest(
+        properties = {"spring.datasource.url=jdbc:h2:mem:cache", SqlStatementCounter.PROPERTY},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureMetrics
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EntityCacheTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void testUserIsReadFromCacheAfterFirstLoad() {
+        UserDto user = addUser();
+        userService.findOne(user.getId());
+        double hits = hits(EntityCacheConfig.USERS);
+
+        SqlStatementCounter.reset();
+        UserDto found = userService.findOne(user.getId());
+
+        assertThat(found.getName(), equalTo(user.getName()));
+        assertThat(SqlStatementCounter.count(), equalTo(0));
+        assertThat(hits(EntityCacheConfig.USERS), greaterThan(hits));
+    }
+
+    @Test
+    void testUserUpdateAndDeleteAreVisibleThroughCache() {
+        UserDto user = addUser();
+        userService.findOne(user.getId());
+
+        userService.update(user.getId(), new UserDto(null, "Иван", null));
+        assertThat(userService.findOne(user.getId()).getName(), equalTo("Иван"));
+
+        userService.delete(user.getId());
+        assertThrows(NotFoundException.class, () -> userService.findOne(user.getId()));
+    }
+
+    @Test
+    void testUserIsNotPresentAfterDelete() {
+        UserDto user = addUser();
+        userService.findOne(user.getId());
+        assertThat(userRepository.isPresent(user.getId()), is(true));
+
+        userService.delete(user.getId());
+
+        assertThat(userRepository.isPresent(user.getId()), is(false));
+    }
+
+    @Test
+    void testItemUpdateAndDeleteAreVisibleThroughCache() {
+        UserDto owner = addUser();
+        UserDto other = addUser();
+        ItemDto item = itemService.add(
+                owner.getId(), new ItemDto(null, "Дрель", "Простая дрель", true, null, null));
+        findItemName(other.getId(), item.getId());
+        double hits = hits(EntityCacheConfig.ITEMS);
+
+        itemService.update(
+                owner.getId(), item.getId(), new ItemDto(null, "Перфоратор", null, null, null, null));
+        assertThat(findItemName(other.getId(), item.getId()), equalTo("Перфоратор"));
+        assertThat(hits(EntityCacheConfig.ITEMS), greaterThan(hits));
+
+        itemService.delete(owner.getId(), item.getId());
+        assertThrows(NotFoundException.class, () -> findItemName(other.getId(), item.getId()));
+    }
+
+    private String findItemName(Long userId, Long itemId) {
+        return itemService.findOneByUser(userId, itemId).getName();
+    }
+
+    private double hits(String region) {
+        return meterRegistry.get("cache.gets").tags("cache", region, "result", "hit").functionCounter().count();
+    }
+
+    private UserDto addUser() {
+        return userService.add(new UserDto(null, "Пётр", UUID.randomUUID() + "@email.com"));
+    }
+}
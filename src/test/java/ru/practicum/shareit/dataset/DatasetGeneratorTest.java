@@ -0,0 +1,83 @@
+package ru.practicum.shareit.dataset;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+// Отдельная база: генератор меняет счётчики identity, это DDL и откатить его нельзя
+@SpringBootTest(
+        properties = "spring.datasource.url=jdbc:h2:mem:dataset",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DatasetGeneratorTest {
+    private final DatasetGenerator datasetGenerator;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+
+    @Test
+    void testGenerate() {
+        long users = count("users");
+        long bookings = count("bookings");
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(100);
+        properties.setRequests(20);
+        properties.setItems(1_000);
+        properties.setComments(200);
+        properties.setBookings(5_000);
+        properties.setBatchSize(300);
+
+        Dataset dataset = datasetGenerator.generate(properties);
+
+        assertThat(count("users"), equalTo(users + 100));
+        assertThat(count("bookings"), equalTo(bookings + 5_000));
+        Long maxItems = jdbcTemplate.queryForObject(
+                "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM items GROUP BY owner_id)", Long.class);
+        assertThat(itemsOf(dataset.getTopOwnerId()), equalTo(maxItems));
+        assertThat(itemsOf(dataset.getTopOwnerId()), greaterThan(100L));
+        Long ownBookings = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.owner_id = b.booker_id",
+                Long.class);
+        assertThat(ownBookings, equalTo(0L));
+        Long overlapping = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings a JOIN bookings b ON a.item_id = b.item_id AND a.id < b.id " +
+                        "WHERE a.start_date < b.end_date AND b.start_date < a.end_date", Long.class);
+        assertThat(overlapping, equalTo(0L));
+
+        User user = new User();
+        user.setName("Иван");
+        user.setEmail("ivan@mail.com");
+        assertThat(userRepository.save(user).getId(), greaterThan(users + 100));
+    }
+
+    @Test
+    void testGenerateAppendsToExistingRows() {
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(10);
+        properties.setRequests(1);
+        properties.setItems(10);
+        properties.setComments(1);
+        properties.setBookings(10);
+        long users = count("users");
+
+        datasetGenerator.generate(properties);
+        datasetGenerator.generate(properties);
+
+        assertThat(count("users"), equalTo(users + 20));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private Long itemsOf(Long ownerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE owner_id = ?", Long.class, ownerId);
+    }
+}
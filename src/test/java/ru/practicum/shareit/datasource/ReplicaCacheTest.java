@@ -0,0 +1,60 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+// Реплика вместе с кэшем второго уровня: прочитанное с реплики не должно попадать в кэш,
+// из которого загружают сущности пишущие транзакции
+@SpringBootTest(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:primary-cache",
+                ReplicaRoutingConfig.REPLICA + ".url=" + ReplicaCacheTest.REPLICA_URL},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReplicaCacheTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-cache;DB_CLOSE_DELAY=-1";
+
+    private final UserService userService;
+    private final DataSource dataSource;
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void testWriteDoesNotLoadReplicaCopyFromCache() {
+        UserDto user = userService.add(new UserDto(null, "Пётр", "petr@mail.com"));
+        replica.update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                user.getId(), user.getName(), user.getEmail());
+        userService.update(user.getId(), new UserDto(null, "Иван", null));
+        // запись вытеснена, следующее чтение идёт в реплику, которая ещё не получила новое имя
+        emf.getCache().evictAll();
+        assertThat(userService.findOne(user.getId()).getName(), equalTo("Пётр"));
+
+        userService.update(user.getId(), new UserDto(null, null, "ivan@mail.com"));
+
+        assertThat(new JdbcTemplate(dataSource).queryForObject(
+                "SELECT name FROM users WHERE id = ?", String.class, user.getId()), equalTo("Иван"));
+    }
+}
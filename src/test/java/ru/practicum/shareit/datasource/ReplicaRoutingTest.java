@@ -0,0 +1,94 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Две базы H2 в памяти, между ними нет репликации: по тому, где видна строка, понятно, куда ушёл запрос.
+// Кэш второго уровня выключен, иначе findOne отвечал бы из кэша, а не из базы
+@SpringBootTest(
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:primary",
+                ReplicaRoutingConfig.REPLICA + ".url=" + ReplicaRoutingTest.REPLICA_URL,
+                "shareit.cache.enabled=false"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private final UserService userService;
+    private final DataSource dataSource;
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    // Схему реплики в жизни привозит репликация, здесь её создаёт Flyway до старта контекста
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void testSecondLevelCacheIsOff() {
+        SessionFactoryOptions options = emf.unwrap(SessionFactory.class).getSessionFactoryOptions();
+
+        assertThat(options.isSecondLevelCacheEnabled(), equalTo(false));
+        assertThat(emf.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory(),
+                instanceOf(NoCachingRegionFactory.class));
+    }
+
+    @Test
+    void testReadOnlyMethodsReadFromReplica() {
+        UserDto user = userService.add(new UserDto(null, "Пётр", "petr@mail.com"));
+
+        assertThat(countUsers(new JdbcTemplate(dataSource), user.getId()), equalTo(1));
+        assertThat(countUsers(replica, user.getId()), equalTo(0));
+        assertThat(userService.findAll(), empty());
+        assertThrows(NotFoundException.class, () -> userService.findOne(user.getId()));
+
+        replica.update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                user.getId(), user.getName(), user.getEmail());
+
+        assertThat(userService.findAll(), contains(user));
+        assertThat(userService.findOne(user.getId()), equalTo(user));
+    }
+
+    @Test
+    void testWritesReadFromPrimary() {
+        UserDto user = userService.add(new UserDto(null, "Иван", "ivan@mail.com"));
+
+        UserDto updated = userService.update(user.getId(), new UserDto(null, "Иван Петрович", null));
+
+        assertThat(updated.getName(), equalTo("Иван Петрович"));
+        assertThat(countUsers(replica, user.getId()), equalTo(0));
+    }
+
+    private static int countUsers(JdbcTemplate jdbcTemplate, Long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE id = ?", Integer.class, id);
+    }
+}
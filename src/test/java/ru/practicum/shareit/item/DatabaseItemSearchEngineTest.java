@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Без @Transactional: Spring не открывает транзакцию теста для методов, унаследованных от абстрактного класса,
+// поэтому вещи удаляются после каждого теста. Отдельная база, чтобы эти строки не попали в остальные тесты.
+// PostgresItemSearchEngine здесь не проверяется: его запрос работает только на PostgreSQL
+@SpringBootTest(
+        properties = "spring.datasource.url=jdbc:h2:mem:search-engine",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DatabaseItemSearchEngineTest extends ItemSearchEngineContractTest {
+    private final ItemRepository itemRepository;
+    private final TestFixture fixture;
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+    }
+
+    @Override
+    protected Item save(Item item) {
+        if (item.getOwner() == null) {
+            item.setOwner(fixture.user());
+        }
+        return itemRepository.save(item);
+    }
+
+    @Override
+    protected void delete(Item item) {
+        itemRepository.delete(item);
+    }
+
+    @Override
+    protected ItemSearchEngine createEngine() {
+        return new DatabaseItemSearchEngine(itemRepository);
+    }
+
+    @Test
+    void testSearchBySubstring() {
+        assertThat(searchEngine.search("кумулятор", 0, 20)).containsExactly(screwdriver);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryItemSearchEngineTest extends MockRepositoryItemSearchEngineTest {
+    @Override
+    protected ItemSearchEngine createEngine() {
+        InMemoryItemSearchEngine searchEngine = new InMemoryItemSearchEngine(itemRepository);
+        searchEngine.rebuild();
+        return searchEngine;
+    }
+
+    @Test
+    void testSearchByPrefixOfWord() {
+        List<Item> items = searchEngine.search("аккум", 0, 20);
+
+        assertThat(items).containsExactly(screwdriver);
+    }
+
+    @Test
+    void testSearchRequiresAllWords() {
+        List<Item> items = searchEngine.search("дрель аккумуляторная", 0, 20);
+
+        assertThat(items).containsExactly(screwdriver);
+    }
+}
@@ -18,8 +18,11 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -76,7 +79,7 @@ public class ItemControllerTest {
 
     @Test
     void testFindAllByUser() throws Exception {
-        when(itemService.findAllByUser(any()))
+        when(itemService.findAllByUser(any(), any(), any(), any()))
                 .thenReturn(List.of(itemWithBookingDto));
 
         mvc.perform(get("/items").header("X-Sharer-User-Id", 1))
@@ -91,7 +94,7 @@ public class ItemControllerTest {
 
     @Test
     void testFindAllByUserWithComments() throws Exception {
-        when(itemService.findAllByUser(any()))
+        when(itemService.findAllByUser(any(), any(), any(), any()))
                 .thenReturn(List.of(itemWithBookingDto));
 
         mvc.perform(get("/items").header("X-Sharer-User-Id", 1))
@@ -109,6 +112,45 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].comments[0].created").exists());
     }
 
+    @Test
+    void testFindAllByUserWithoutPageReturnsAllItems() throws Exception {
+        when(itemService.findAllByUser(any(), any(), isNull(), isNull()))
+                .thenReturn(List.of(itemWithBookingDto));
+
+        mvc.perform(get("/items").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testFindAllByUserReturnsNextCursorWhenPageIsFull() throws Exception {
+        when(itemService.findAllByUser(any(), any(), any(), any()))
+                .thenReturn(List.of(itemWithBookingDto));
+
+        mvc.perform(get("/items?from=0&size=1").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Next-Cursor", ItemCursor.encode(itemWithBookingDto.getId())));
+    }
+
+    @Test
+    void testFindAllByUserWithCursor() throws Exception {
+        when(itemService.findAllByUser(any(), any(), eq(20), eq(1L)))
+                .thenReturn(List.of());
+
+        mvc.perform(get("/items?cursor=" + ItemCursor.encode(1L)).header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testFindAllByUserWithBrokenCursor() throws Exception {
+        mvc.perform(get("/items?cursor=!!!").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testFindOneByUser() throws Exception {
         when(itemService.findOneByUser(any(), any()))
@@ -196,10 +238,10 @@ public class ItemControllerTest {
 
     @Test
     void testSearch() throws Exception {
-        when(itemService.search(any(), any()))
+        when(itemService.search(any(), any(), any(), any()))
                 .thenReturn(List.of(itemDto));
 
-        mvc.perform(get("/items/search?text=test").header("X-Sharer-User-Id", 1))
+        mvc.perform(get("/items/search?text=test&from=0&size=10").header("X-Sharer-User-Id", 1))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Поведение, общее для всех реализаций ItemSearchEngine. Наследник задаёт, где хранятся вещи и как создаётся поиск,
+// а сюда добавляет только проверки своего способа сопоставления слов
+public abstract class ItemSearchEngineContractTest {
+    protected ItemSearchEngine searchEngine;
+    protected Item drill;
+    protected Item screwdriver;
+    protected Item hammer;
+
+    @BeforeEach
+    void setUpItems() {
+        drill = save(makeItem("Дрель", "Простая дрель", true));
+        screwdriver = save(makeItem("Отвертка", "Аккумуляторная отвертка, работает как дрель", true));
+        hammer = save(makeItem("Молоток", "Дрель не нужна", false));
+        searchEngine = createEngine();
+    }
+
+    // Сохраняет новую или изменённую вещь
+    protected abstract Item save(Item item);
+
+    protected abstract void delete(Item item);
+
+    // Вызывается после сохранения вещей из setUpItems
+    protected abstract ItemSearchEngine createEngine();
+
+    @Test
+    void testSearchRanksNameMatchesFirst() {
+        List<Item> items = searchEngine.search("ДРЕЛЬ", 0, 20);
+
+        assertThat(items).containsExactly(drill, screwdriver);
+    }
+
+    @Test
+    void testSearchWithPage() {
+        assertThat(searchEngine.search("дрель", 1, 1)).containsExactly(screwdriver);
+        assertThat(searchEngine.search("дрель", 2, 1)).isEmpty();
+    }
+
+    // from не кратный size: страница начинается ровно с from
+    @Test
+    void testSearchFromIsExactOffset() {
+        Item perforator = save(makeItem("Перфоратор", "Дрель с ударом", true));
+        searchEngine.index(perforator);
+
+        assertThat(searchEngine.search("дрель", 1, 2)).containsExactly(screwdriver, perforator);
+    }
+
+    // Сервис сначала сохраняет вещь, затем вызывает index
+    @Test
+    void testIndexUpdatedItem() {
+        hammer.setAvailable(true);
+        searchEngine.index(save(hammer));
+        drill.setAvailable(false);
+        searchEngine.index(save(drill));
+
+        List<Item> items = searchEngine.search("дрель", 0, 20);
+
+        assertThat(items).containsExactly(screwdriver, hammer);
+    }
+
+    @Test
+    void testRemove() {
+        delete(drill);
+        searchEngine.remove(drill.getId());
+
+        List<Item> items = searchEngine.search("дрель", 0, 20);
+
+        assertThat(items).containsExactly(screwdriver);
+    }
+
+    private static Item makeItem(String name, String description, Boolean available) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+}
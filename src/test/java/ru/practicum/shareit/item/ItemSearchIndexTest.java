@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+// Без @Transactional: поиск в памяти получает изменения только после commit.
+// Отдельная база, чтобы эти строки не попали в остальные тесты
+@SpringBootTest(
+        properties = {"spring.datasource.url=jdbc:h2:mem:search", "shareit.search.engine=memory"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemSearchIndexTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemSearchEngine itemSearchEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    @Test
+    void testItemIsIndexedAfterCommit() {
+        Long userId = addUser();
+        ItemDto item = itemService.add(userId, new ItemDto(null, "Перфоратор", "Простой", true, null, null));
+        assertThat(searchIds("перфоратор"), contains(item.getId()));
+
+        itemService.delete(userId, item.getId());
+        assertThat(searchIds("перфоратор"), empty());
+    }
+
+    @Test
+    void testRolledBackItemIsNotIndexed() {
+        Long userId = addUser();
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.add(userId, new ItemDto(null, "Стремянка", "Простая", true, null, null));
+            assertThat(searchIds("стремянка"), empty());
+            status.setRollbackOnly();
+        });
+
+        assertThat(searchIds("стремянка"), empty());
+    }
+
+    private List<Long> searchIds(String text) {
+        return itemSearchEngine.search(text, 0, 20).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Long addUser() {
+        return userService.add(new UserDto(null, "Пётр", UUID.randomUUID() + "@email.com")).getId();
+    }
+}
@@ -2,8 +2,12 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingItemDto;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.requests.ItemRequest;
@@ -14,11 +18,14 @@ import ru.practicum.shareit.user.UserRepository;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 
 public class ItemServiceImplTest {
     ItemService itemService;
@@ -27,6 +34,8 @@ public class ItemServiceImplTest {
     CommentRepository commentRepository;
     BookingRepository bookingRepository;
     ItemRequestRepository itemRequestRepository;
+    ItemSearchEngine itemSearchEngine;
+    BookingIntervalIndex bookingIntervalIndex;
 
     private final Item item = new Item();
     private final User user = new User();
@@ -60,31 +69,100 @@ public class ItemServiceImplTest {
         commentRepository = Mockito.mock(CommentRepository.class);
         bookingRepository = Mockito.mock(BookingRepository.class);
         itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        itemSearchEngine = Mockito.mock(ItemSearchEngine.class);
+        bookingIntervalIndex = Mockito.mock(BookingIntervalIndex.class);
 
         itemService = new ItemServiceImpl(
                 userRepository,
                 itemRepository,
                 commentRepository,
                 bookingRepository,
-                itemRequestRepository
+                itemRequestRepository,
+                itemSearchEngine,
+                bookingIntervalIndex
                 );
     }
 
     @Test
     void testFindAllByUser() {
         Mockito.when(
-                itemRepository.findAllByOwnerIdOrderById(any())
+                itemRepository.findAllByOwnerIdOrderById(any(), any())
         ).thenReturn(List.of(item));
-        Collection<ItemWithBookingDto> itemWithBookingDtoList = itemService.findAllByUser(1L);
+        Collection<ItemWithBookingDto> itemWithBookingDtoList = itemService.findAllByUser(1L, 0, 20, null);
 
         assertThat(itemWithBookingDtoList).isNotNull();
         assertThat(itemWithBookingDtoList.size()).isEqualTo(1);
     }
 
+    @Test
+    void testFindAllByUserWithoutPage() {
+        Mockito.when(
+                itemRepository.findAllByOwnerIdOrderById(any(), eq(Pageable.unpaged()))
+        ).thenReturn(List.of(item));
+        Collection<ItemWithBookingDto> itemWithBookingDtoList = itemService.findAllByUser(1L, 0, null, null);
+
+        assertThat(itemWithBookingDtoList.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindAllByUserPagesByExactOffset() {
+        Mockito.when(
+                itemRepository.findAllByOwnerIdOrderById(any(), eq(new OffsetPageRequest(5, 20)))
+        ).thenReturn(List.of(item));
+        Collection<ItemWithBookingDto> itemWithBookingDtoList = itemService.findAllByUser(1L, 5, 20, null);
+
+        assertThat(itemWithBookingDtoList.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindAllByUserWithLastAndNextBooking() {
+        BookingItemDto lastBooking = new BookingItemDto(1L, LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1), user.getId(), BookingStatus.APPROVED);
+        BookingItemDto nextBooking = new BookingItemDto(2L, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), user.getId(), BookingStatus.WAITING);
+
+        Mockito.when(
+                itemRepository.findAllByOwnerIdOrderById(any(), any())
+        ).thenReturn(List.of(item));
+        Mockito.when(bookingIntervalIndex.findLast(any(), any())).thenReturn(Map.of(item.getId(), lastBooking));
+        Mockito.when(bookingIntervalIndex.findNext(any(), any())).thenReturn(Map.of(item.getId(), nextBooking));
+
+        Collection<ItemWithBookingDto> itemWithBookingDtoList = itemService.findAllByUser(1L, 0, 20, null);
+
+        assertThat(itemWithBookingDtoList.size()).isEqualTo(1);
+        ItemWithBookingDto itemWithBookingDto = itemWithBookingDtoList.iterator().next();
+        assertThat(itemWithBookingDto.getLastBooking().getId()).isEqualTo(lastBooking.getId());
+        assertThat(itemWithBookingDto.getNextBooking().getId()).isEqualTo(nextBooking.getId());
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testFindAllByUserWithCursor() {
+        Mockito.when(
+                itemRepository.findAllByOwnerIdAndIdGreaterThanOrderById(any(), any(), any())
+        ).thenReturn(List.of(item));
+        Collection<ItemWithBookingDto> itemWithBookingDtoList = itemService.findAllByUser(1L, 0, 20, 0L);
+
+        assertThat(itemWithBookingDtoList.size()).isEqualTo(1);
+        Mockito.verify(itemRepository, Mockito.never()).findAllByOwnerIdOrderById(any(), any());
+    }
+
+    @Test
+    void testFindAllByUserWhereFromLessZero() {
+        assertThatThrownBy(() -> itemService.findAllByUser(1L, -1, 20, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void testFindAllByUserWhereSizeIsZero() {
+        assertThatThrownBy(() -> itemService.findAllByUser(1L, 0, 0, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     void testFindOneByUser() {
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         ItemWithBookingDto itemWithBookingDtoList = itemService.findOneByUser(1L, 1L);
 
         assertThat(itemWithBookingDtoList).isNotNull();
@@ -97,7 +175,7 @@ public class ItemServiceImplTest {
     @Test
     void testFindOneByUserWhereUserNotFound() {
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
 
         assertThatThrownBy(() -> itemService.findOneByUser(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
@@ -106,7 +184,7 @@ public class ItemServiceImplTest {
     @Test
     void testFindOneByUserWhereItemNotFound() {
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.empty());
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         assertThatThrownBy(() -> itemService.findOneByUser(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
@@ -131,6 +209,7 @@ public class ItemServiceImplTest {
 
         ItemDto itemDtoAdded = itemService.add(1L, itemDto);
 
+        Mockito.verify(itemSearchEngine).index(item);
         assertThat(itemDtoAdded).isNotNull();
         assertThat(itemDtoAdded.getId()).isEqualTo(item.getId());
         assertThat(itemDtoAdded.getName()).isEqualTo(item.getName());
@@ -324,7 +403,6 @@ public class ItemServiceImplTest {
     void testUpdate() {
         item.setRequest(itemRequest);
 
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.of(itemRequest));
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
         Mockito.when(itemRepository.save(any())).thenReturn(item);
@@ -340,6 +418,7 @@ public class ItemServiceImplTest {
 
         ItemDto itemDtoAdded = itemService.update(1L, 1L, itemDto);
 
+        Mockito.verify(itemSearchEngine).index(item);
         assertThat(itemDtoAdded).isNotNull();
         assertThat(itemDtoAdded.getId()).isEqualTo(item.getId());
         assertThat(itemDtoAdded.getName()).isEqualTo(item.getName());
@@ -374,7 +453,7 @@ public class ItemServiceImplTest {
     void testUpdateWhereUserNotFound() {
         item.setRequest(itemRequest);
 
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.of(itemRequest));
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
         Mockito.when(itemRepository.save(any())).thenReturn(item);
@@ -388,7 +467,7 @@ public class ItemServiceImplTest {
                 null
         );
 
-        assertThatThrownBy(() -> itemService.update(1L, 1L, itemDto))
+        assertThatThrownBy(() -> itemService.update(2L, 1L, itemDto))
                 .isInstanceOf(NotFoundException.class);
     }
 
@@ -401,7 +480,7 @@ public class ItemServiceImplTest {
         newUser.setName("petr");
         newUser.setEmail("petr@mail.com");
 
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(newUser));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.of(itemRequest));
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
         Mockito.when(itemRepository.save(any())).thenReturn(item);
@@ -415,7 +494,7 @@ public class ItemServiceImplTest {
                 null
         );
 
-        assertThatThrownBy(() -> itemService.update(1L, 1L, itemDto))
+        assertThatThrownBy(() -> itemService.update(2L, 1L, itemDto))
                 .isInstanceOf(NotFoundException.class);
     }
 
@@ -423,7 +502,6 @@ public class ItemServiceImplTest {
     void testUpdateWhereItemRequestNotFound() {
         item.setRequest(itemRequest);
 
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.empty());
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
         Mockito.when(itemRepository.save(any())).thenReturn(item);
@@ -443,28 +521,36 @@ public class ItemServiceImplTest {
 
     @Test
     void testDelete() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        Mockito.doNothing().when(itemRepository).deleteById(any());
+        Mockito.doNothing().when(itemRepository).delete(any());
 
         Boolean isDelete = itemService.delete(1L, 1L);
 
+        Mockito.verify(itemSearchEngine).remove(1L);
         assertThat(isDelete).isEqualTo(true);
     }
 
     @Test
     void testDeleteUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
-        Mockito.doNothing().when(itemRepository).deleteById(any());
 
-        assertThatThrownBy(() -> itemService.delete(1L, 1L))
+        assertThatThrownBy(() -> itemService.delete(2L, 1L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void testDeleteWhereUserWithoutItem() {
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(itemRepository.findById(any())).thenReturn(Optional.of(item));
+
+        assertThatThrownBy(() -> itemService.delete(2L, 1L))
                 .isInstanceOf(NotFoundException.class);
+        Mockito.verify(itemRepository, Mockito.never()).delete(any());
     }
 
     @Test
     void testDeleteItemNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
         Mockito.when(itemRepository.findById(any())).thenReturn(Optional.empty());
         Mockito.doNothing().when(itemRepository).deleteById(any());
 
@@ -474,21 +560,49 @@ public class ItemServiceImplTest {
 
     @Test
     void testSearch() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        Mockito.when(itemRepository.search(any())).thenReturn(List.of(item));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(itemSearchEngine.search("text", 20, 10)).thenReturn(List.of(item));
 
-        Collection<ItemDto> itemDtoList = itemService.search(1L, "text");
+        Collection<ItemDto> itemDtoList = itemService.search(1L, "text", 20, 10);
 
         assertThat(itemDtoList).isNotNull();
         assertThat(itemDtoList.size()).isEqualTo(1);
     }
 
+    @Test
+    void testSearchWhereSizeAboveLimit() {
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
+        Mockito.when(itemSearchEngine.search(any(), anyInt(), anyInt())).thenReturn(List.of(item));
+
+        itemService.search(1L, "text", 0, 10_000);
+
+        Mockito.verify(itemSearchEngine).search("text", 0, ItemSearchEngine.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void testSearchWhereFromBeyondResultWindow() {
+        assertThatThrownBy(() -> itemService.search(1L, "text", ItemSearchEngine.MAX_RESULT_WINDOW, 1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void testSearchWhereFromLessZero() {
+        assertThatThrownBy(() -> itemService.search(1L, "text", -1, 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void testSearchWhereSizeIsZero() {
+        assertThatThrownBy(() -> itemService.search(1L, "text", 0, 0))
+                .isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     void testSearchWhereTextIsEmpty() {
         Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
-        Mockito.when(itemRepository.search(any())).thenReturn(List.of(item));
+        Mockito.when(itemSearchEngine.search(any(), anyInt(), anyInt())).thenReturn(List.of(item));
 
-        Collection<ItemDto> itemDtoList = itemService.search(1L, "");
+        Collection<ItemDto> itemDtoList = itemService.search(1L, "", 0, 20);
 
         assertThat(itemDtoList).isNotNull();
         assertThat(itemDtoList.size()).isEqualTo(0);
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.SqlStatementCounter;
+import ru.practicum.shareit.TestFixture;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+@Transactional
+@SpringBootTest(
+        properties = {"db.name=test", SqlStatementCounter.PROPERTY},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemServiceTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final TestFixture fixture;
+
+    @Test
+    void testSearch() {
+        Long userId = userService.add(makeUserDto("owner@email.com", "Пётр")).getId();
+        ItemDto screwdriver = itemService.add(userId, makeItemDto("Отвертка", "Аккумуляторная, как дрель", true));
+        ItemDto drill = itemService.add(userId, makeItemDto("Дрель", "Простая дрель", true));
+        itemService.add(userId, makeItemDto("Дрель ударная", "Сломана", false));
+
+        assertThat(searchIds(userId, "дРеЛь", 0, 20), contains(drill.getId(), screwdriver.getId()));
+        assertThat(searchIds(userId, "дрель", 1, 1), contains(screwdriver.getId()));
+        assertThat(searchIds(userId, "молоток", 0, 20), empty());
+    }
+
+    // from не кратный size: страница начинается ровно с from, как в поиске в памяти
+    @Test
+    void testSearchFromIsExactOffset() {
+        Long userId = userService.add(makeUserDto("owner@email.com", "Пётр")).getId();
+        for (int i = 0; i < 3; i++) {
+            itemService.add(userId, makeItemDto("Дрель " + i, "Простая дрель", true));
+        }
+
+        assertThat(searchIds(userId, "дрель", 1, 2), equalTo(searchIds(userId, "дрель", 0, 3).subList(1, 3)));
+    }
+
+    // from не кратный size: страница вещей владельца тоже начинается ровно с from
+    @Test
+    void testFindAllByUserFromIsExactOffset() {
+        User owner = fixture.user();
+        List<Long> ids = List.of(fixture.item(owner).getId(), fixture.item(owner).getId(), fixture.item(owner).getId());
+
+        List<Long> page = itemService.findAllByUser(owner.getId(), 1, 2, null).stream()
+                .map(ItemWithBookingDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(page, equalTo(ids.subList(1, 3)));
+    }
+
+    @Test
+    void testFindAllByUserStatementCountDoesNotDependOnItemCount() {
+        User owner = fixture.user();
+        persistItems(owner, 2);
+        long statementsForTwoItems = fixture.countStatements(() -> itemService.findAllByUser(owner.getId(), 0, 20, null));
+        persistItems(owner, 6);
+        long statementsForEightItems = fixture.countStatements(() -> itemService.findAllByUser(owner.getId(), 0, 20, null));
+
+        assertThat(statementsForEightItems, equalTo(statementsForTwoItems));
+    }
+
+    @Test
+    void testSearchStatementCountDoesNotDependOnItemCount() {
+        User owner = fixture.user();
+        persistItems(owner, 2);
+        long statementsForTwoItems = fixture.countStatements(() -> itemService.search(owner.getId(), "дрель", 0, 20));
+        persistItems(owner, 6);
+        long statementsForEightItems = fixture.countStatements(() -> itemService.search(owner.getId(), "дрель", 0, 20));
+
+        assertThat(statementsForEightItems, equalTo(statementsForTwoItems));
+    }
+
+    // Каждая вещь со своим запросом, бронированиями и комментарием своего автора
+    private void persistItems(User owner, int count) {
+        for (int i = 0; i < count; i++) {
+            User author = fixture.user();
+            Item item = fixture.item(owner, fixture.request(author));
+            fixture.booking(item, author, BookingStatus.APPROVED,
+                    LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+            fixture.booking(item, author, BookingStatus.APPROVED,
+                    LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+            fixture.comment(item, author);
+        }
+    }
+
+    private List<Long> searchIds(Long userId, String text, Integer from, Integer size) {
+        return itemService.search(userId, text, from, size).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private UserDto makeUserDto(String email, String name) {
+        UserDto dto = new UserDto();
+        dto.setEmail(email);
+        dto.setName(name);
+
+        return dto;
+    }
+
+    private ItemDto makeItemDto(String name, String description, Boolean available) {
+        return new ItemDto(null, name, description, available, null, null);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+
+// Поиск в памяти над ItemRepository, который отдаёт вещи из списка
+public abstract class MockRepositoryItemSearchEngineTest extends ItemSearchEngineContractTest {
+    protected final List<Item> items = new ArrayList<>();
+    protected final ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+    private long nextId = 1;
+
+    protected MockRepositoryItemSearchEngineTest() {
+        Mockito.when(itemRepository.findAllByAvailableTrue()).thenAnswer(invocation -> items.stream()
+                .filter(Item::getAvailable)
+                .collect(Collectors.toList()));
+        Mockito.when(itemRepository.findAllByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return items.stream()
+                    .filter(item -> ids.contains(item.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    protected Item save(Item item) {
+        if (item.getId() == null) {
+            item.setId(nextId++);
+            items.add(item);
+        }
+        return item;
+    }
+
+    @Override
+    protected void delete(Item item) {
+        items.remove(item);
+    }
+}
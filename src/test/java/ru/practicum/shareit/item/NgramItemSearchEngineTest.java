@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NgramItemSearchEngineTest extends MockRepositoryItemSearchEngineTest {
+    @Override
+    protected ItemSearchEngine createEngine() {
+        NgramItemSearchEngine searchEngine = new NgramItemSearchEngine(itemRepository);
+        searchEngine.rebuild();
+        return searchEngine;
+    }
+
+    @Test
+    void testSearchBySubstring() {
+        List<Item> items = searchEngine.search("кумулятор", 0, 20);
+
+        assertThat(items).containsExactly(screwdriver);
+    }
+
+    @Test
+    void testSearchShorterThanTrigram() {
+        List<Item> items = searchEngine.search("Ре", 0, 20);
+
+        assertThat(items).containsExactly(drill, screwdriver);
+    }
+
+    @Test
+    void testSearchMatchesWholePhrase() {
+        assertThat(searchEngine.search("как дрель", 0, 20)).containsExactly(screwdriver);
+        assertThat(searchEngine.search("дрель как", 0, 20)).isEmpty();
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+// Сам полнотекстовый запрос работает только на PostgreSQL, здесь проверяется загрузка страницы по его id
+public class PostgresItemSearchEngineTest {
+    private final ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+    private final PostgresItemSearchEngine searchEngine = new PostgresItemSearchEngine(itemRepository);
+
+    @Test
+    void testSearchLoadsItemsByIdInRankOrder() {
+        Item drill = item(1L);
+        Item screwdriver = item(2L);
+        Mockito.when(itemRepository.searchFullTextIds(eq("дрель"), eq(new OffsetPageRequest(5, 20))))
+                .thenReturn(List.of(BigInteger.valueOf(2), BigInteger.valueOf(1)));
+        Mockito.when(itemRepository.findAllByIdIn(List.of(2L, 1L))).thenReturn(List.of(drill, screwdriver));
+
+        List<Item> items = searchEngine.search("дрель", 5, 20);
+
+        assertThat(items).containsExactly(screwdriver, drill);
+    }
+
+    @Test
+    void testSearchWithoutMatchesDoesNotLoadItems() {
+        Mockito.when(itemRepository.searchFullTextIds(any(), any())).thenReturn(List.of());
+
+        List<Item> items = searchEngine.search("дрель", 0, 20);
+
+        assertThat(items).isEmpty();
+        Mockito.verify(itemRepository, Mockito.never()).findAllByIdIn(any());
+    }
+
+    private static Item item(Long id) {
+        Item item = new Item();
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.TestFixture;
+import ru.practicum.shareit.booking.BookingParamState;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Transactional
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MetricsAspectTest {
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final MockMvc mvc;
+    private final TestFixture fixture;
+
+    @Test
+    void testServiceAndRepositoryTimersTaggedByState() {
+        User user = fixture.user();
+
+        bookingService.findAllByOwner(user.getId(), BookingParamState.WAITING, 0, 20, null);
+
+        assertThat(meterRegistry.get(MetricsAspect.SERVICE_TIMER)
+                .tags("class", "BookingServiceImpl", "method", "findAllByOwner", "state", "WAITING")
+                .timer().count(), equalTo(1L));
+        assertThat(meterRegistry.get(MetricsAspect.REPOSITORY_TIMER)
+                .tags("class", "BookingRepository", "method", "findAllByOwnerByStatus", "state", "WAITING")
+                .timer().count(), equalTo(1L));
+    }
+
+    @Test
+    void testStateIsNotTaggedOutsideBookingListCalls() {
+        User user = fixture.user();
+        bookingService.findAll(user.getId(), BookingParamState.PAST, 0, 20, null);
+
+        userService.findOne(user.getId());
+
+        assertThat(meterRegistry.get(MetricsAspect.SERVICE_TIMER)
+                .tags("class", "UserServiceImpl", "method", "findOne", "state", "none")
+                .timer().count(), greaterThanOrEqualTo(1L));
+    }
+
+    @Test
+    void testExceptionIsTagged() {
+        assertThrows(NotFoundException.class, () -> userService.findOne(-1L));
+
+        assertThat(meterRegistry.get(MetricsAspect.SERVICE_TIMER)
+                .tags("class", "UserServiceImpl", "method", "findOne", "exception", "NotFoundException")
+                .timer().count(), greaterThanOrEqualTo(1L));
+    }
+
+    @Test
+    void testPrometheusEndpoint() throws Exception {
+        User user = fixture.user();
+        bookingService.findAllByOwner(user.getId(), BookingParamState.ALL, 0, 20, null);
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("shareit_service_seconds_bucket{class=\"BookingServiceImpl\"")))
+                .andExpect(content().string(containsString("shareit_repository_seconds_count{class=\"BookingRepository\"")));
+    }
+
+    @Test
+    void testRequestSqlSummaryTaggedByEndpoint() throws Exception {
+        User user = fixture.user();
+        em.flush();
+        em.clear();
+
+        mvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get(SqlMonitor.STATEMENTS_SUMMARY).tag("endpoint", "GET /users/{id}")
+                .summary().totalAmount(), greaterThanOrEqualTo(1.0));
+    }
+}
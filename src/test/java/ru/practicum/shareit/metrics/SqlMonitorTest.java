@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SqlMonitorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private SqlMonitor sqlMonitor;
+
+    @BeforeEach
+    void setUp() {
+        SqlProperties sqlProperties = new SqlProperties();
+        sqlProperties.setSlowThreshold(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+        sqlMonitor = new SqlMonitor(sqlProperties, meterRegistry);
+    }
+
+    @Test
+    void testFinishRecordsRequestSummary() {
+        sqlMonitor.start("GET /items/1", "1");
+        sqlMonitor.record(TimeUnit.MILLISECONDS.toNanos(2), () -> "select 1");
+        sqlMonitor.record(TimeUnit.MILLISECONDS.toNanos(3), () -> "select 2");
+
+        sqlMonitor.finish("GET /items/{id}");
+
+        assertThat(meterRegistry.get(SqlMonitor.STATEMENTS_SUMMARY).tag("endpoint", "GET /items/{id}")
+                .summary().totalAmount(), equalTo(2.0));
+        assertThat(meterRegistry.get(SqlMonitor.TIME_TIMER).tag("endpoint", "GET /items/{id}")
+                .timer().totalTime(TimeUnit.MILLISECONDS), equalTo(5.0));
+    }
+
+    @Test
+    void testRecordCountsSlowQueriesOnly() {
+        sqlMonitor.record(TimeUnit.MILLISECONDS.toNanos(50), () -> "select 1");
+        sqlMonitor.record(TimeUnit.MILLISECONDS.toNanos(150), () -> "select 2");
+
+        assertThat(meterRegistry.get(SqlMonitor.SLOW_COUNTER).counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    void testQueriesOutsideRequestAreNotSummarized() {
+        sqlMonitor.record(TimeUnit.MILLISECONDS.toNanos(2), () -> "select 1");
+
+        sqlMonitor.finish("GET /items");
+
+        assertThat(meterRegistry.find(SqlMonitor.STATEMENTS_SUMMARY).summary(), equalTo(null));
+    }
+}
@@ -45,7 +45,7 @@ public class ItemRequestServiceImplTest {
         Mockito.when(
                 itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(any())
         ).thenReturn(List.of(itemRequest));
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         Collection<ItemRequestDto> itemRequestDtoList = itemRequestService.findAllByUser(1L);
 
@@ -55,7 +55,7 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void testFindAllByUserWhereUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
         assertThatThrownBy(() -> itemRequestService.findAllByUser(1L))
                 .isInstanceOf(NotFoundException.class);
     }
@@ -65,7 +65,7 @@ public class ItemRequestServiceImplTest {
         Mockito.when(
                 itemRequestRepository.findAllByRequestorIdNot(any(), any())
         ).thenReturn(List.of(itemRequest));
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
 
         Collection<ItemRequestDto> itemRequestDtoList = itemRequestService.findAllByUser(1L, 0, 20);
 
@@ -75,28 +75,28 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void testFindAllByUserWithPageableWhereUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
         assertThatThrownBy(() -> itemRequestService.findAllByUser(1L, 0, 20))
                 .isInstanceOf(NotFoundException.class);
     }
 
     @Test
     void testFindAllByUserWithPageableWhereFromLessZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         assertThatThrownBy(() -> itemRequestService.findAllByUser(1L, -1, 20))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindAllByUserWithPageableWhereSizeZero() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         assertThatThrownBy(() -> itemRequestService.findAllByUser(1L, 0, 0))
                 .isInstanceOf(BadRequestException.class);
     }
 
     @Test
     void testFindOneByUser() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.of(itemRequest));
         ItemRequestDto itemRequestDto = itemRequestService.findOneByUser(1L, 1L);
 
@@ -108,7 +108,7 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void testFindOneByUserWhereUserNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.isPresent(any())).thenReturn(false);
 
         assertThatThrownBy(() -> itemRequestService.findOneByUser(1L, 1L))
                 .isInstanceOf(NotFoundException.class);
@@ -116,7 +116,7 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void testFindOneByUserWhereItemRequestNotFound() {
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.isPresent(any())).thenReturn(true);
         Mockito.when(itemRequestRepository.findById(any())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> itemRequestService.findOneByUser(1L, 1L))